@@ -0,0 +1,78 @@
+package benchmark;
+
+import date.DailyCounter;
+import date.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks per-day counting from several threads at once: DailyCounter against
+ * a ConcurrentHashMap of AtomicLongs keyed by the printed date.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Threads(4)
+public class DailyCounterBenchmark {
+    // Number of pre-generated dates, a power of two so the cursor can wrap with a mask
+    private static final int DATES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Counters {
+        final Date[] dates = new Date[DATES];
+        final int[] days = new int[DATES];
+        DailyCounter counter;
+        ConcurrentHashMap<String, AtomicLong> map;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < DATES; i++) {
+                dates[i] = Date.fromDays(Date.toDays(1, 1, 2024) + i % 366);
+                days[i] = dates[i].toDays();
+            }
+            counter = new DailyCounter(days[0], 366);
+            map = new ConcurrentHashMap<>();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next() {
+            next = (next + 1) & (DATES - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public boolean dailyCounter(Counters counters, Cursor cursor) {
+        return counters.counter.increment(counters.dates[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean dailyCounterDays(Counters counters, Cursor cursor) {
+        return counters.counter.increment(counters.days[cursor.next()]);
+    }
+
+    @Benchmark
+    public long concurrentHashMap(Counters counters, Cursor cursor) {
+        Date date = counters.dates[cursor.next()];
+        String key = date.getMonth() + "/" + date.getDay() + "/" + date.getYear();
+        return counters.map.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import date.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the static Date methods and Date construction.
+ * Every invocation takes the next date from a pre-generated table,
+ * so the JIT cannot fold the inputs into constants.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class DateBenchmark {
+    // Number of pre-generated dates, a power of two so the cursor can wrap with a mask
+    private static final int DATES = 1024;
+
+    private final int[] months = new int[DATES];
+    private final int[] days = new int[DATES];
+    private final int[] years = new int[DATES];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < DATES; i++) {
+            years[i] = 1900 + random.nextInt(200);
+            months[i] = 1 + random.nextInt(12);
+            days[i] = 1 + random.nextInt(Date.getDaysInMonth(months[i], years[i]));
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (DATES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public boolean isValidDate() {
+        int i = next();
+        return Date.isValidDate(months[i], days[i], years[i]);
+    }
+
+    @Benchmark
+    public int toDays() {
+        int i = next();
+        return Date.toDays(months[i], days[i], years[i]);
+    }
+
+    @Benchmark
+    public String getDayOfWeek() {
+        int i = next();
+        return Date.getDayOfWeek(months[i], days[i], years[i]);
+    }
+
+    @Benchmark
+    public int calculateDifference() {
+        int i = next();
+        int j = (i + 1) & (DATES - 1);
+        return Date.calculateDifference(months[i], days[i], years[i], months[j], days[j], years[j]);
+    }
+
+    @Benchmark
+    public Date construct() {
+        int i = next();
+        return new Date(months[i], days[i], years[i]);
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import date.Date;
+import date.PackedDate;
+import date.PackedDateArrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks day differences over pairs of dates: Date.calculateDifference on Date objects
+ * against the bulk PackedDateArrays calls on packed dates and on pre-converted day counts,
+ * and a square difference matrix with about size cells, so every benchmark fills size results.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class DateDifferenceBenchmark {
+    @Param({ "1000", "1000000" })
+    public int size;
+
+    private Date[] firstDates;
+    private Date[] secondDates;
+    private int[] first;
+    private int[] second;
+    private int[] firstDays;
+    private int[] secondDays;
+    private int[] out;
+    private int[] matrixRows;
+    private int[] matrixOut;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        firstDates = new Date[size];
+        secondDates = new Date[size];
+        first = new int[size];
+        second = new int[size];
+        for (int i = 0; i < size; i++) {
+            firstDates[i] = randomDate(random);
+            secondDates[i] = randomDate(random);
+            first[i] = PackedDate.pack(firstDates[i]);
+            second[i] = PackedDate.pack(secondDates[i]);
+        }
+        firstDays = PackedDateArrays.toDays(first);
+        secondDays = PackedDateArrays.toDays(second);
+        out = new int[size];
+
+        int side = (int) Math.sqrt(size);
+        matrixRows = new int[side];
+        for (int i = 0; i < side; i++) {
+            matrixRows[i] = PackedDate.pack(randomDate(random));
+        }
+        matrixOut = new int[side * side];
+    }
+
+    private static Date randomDate(Random random) {
+        int year = 1900 + random.nextInt(200);
+        int month = 1 + random.nextInt(12);
+        return new Date(month, 1 + random.nextInt(Date.getDaysInMonth(month, year)), year);
+    }
+
+    @Benchmark
+    public int[] calculateDifference() {
+        for (int i = 0; i < size; i++) {
+            out[i] = firstDates[i].calculateDifference(secondDates[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] differences() {
+        PackedDateArrays.differences(first, second, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] dayDifferences() {
+        PackedDateArrays.dayDifferences(firstDays, secondDays, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] differenceMatrix() {
+        int[] days = PackedDateArrays.toDays(matrixRows);
+        PackedDateArrays.dayDifferenceMatrix(days, days, matrixOut);
+        return matrixOut;
+    }
+}
@@ -0,0 +1,355 @@
+package benchmark;
+
+import date.Date;
+import date.DateGenerator;
+import date.DatePeriod;
+import date.PackedDate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Differential harness that checks the Date operations against java.time.LocalDate and measures both.
+ *
+ * The input is every date of a range of years plus the output of DateGenerator. Each operation is a pair
+ * of kernels, one on the Date side and one on the LocalDate side, that map an input index to a long.
+ * The Date and LocalDate objects are built once up front, so the kernels of instance methods time
+ * the method and not the construction of its receiver (every Date also creates a DateGenerator).
+ * The correctness pass compares the two results for every index; the timing pass runs each kernel over
+ * the whole input on all threads and reports the throughput of both sides next to each other.
+ * Every kernel is timed through a fresh copy of {@link KernelLoop}, so no kernel runs through a call
+ * site that the other kernels have already made megamorphic.
+ *
+ * Usage: {@code java --enable-preview -cp benchmarks/target/benchmarks.jar benchmark.DateDifferentialHarness
+ * [fromYear toYear randomDates threads]}. The exit code is 1 if any operation disagrees with java.time.
+ */
+public final class DateDifferentialHarness {
+    // Date.toDays() of 1970-01-01, the epoch day 0 of java.time
+    private static final long EPOCH_OFFSET = 719163;
+
+    // Day names indexed by ISO day of week, as returned by Date.getDayOfWeek
+    private static final String[] DAY_NAMES = { "", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday" };
+
+    // Timed passes per kernel, the fastest one is reported
+    private static final int PASSES = 3;
+
+    // Mismatches printed per operation
+    private static final int EXAMPLES = 5;
+
+    // Class file of the timing loop, defined again as a hidden class for every kernel
+    private static final byte[] LOOP = loopClassFile();
+
+    /**
+     * Maps an input index to a value that is compared between the two sides.
+     */
+    @FunctionalInterface
+    interface Kernel {
+        long apply(int index);
+    }
+
+    // An operation with its Date and LocalDate kernels
+    private static final class Operation {
+        final String name;
+        final Kernel date;
+        final Kernel jdk;
+
+        Operation(String name, Kernel date, Kernel jdk) {
+            this.name = name;
+            this.date = date;
+            this.jdk = jdk;
+        }
+    }
+
+    // Input dates, by field, as Date.toDays() day counts and as objects
+    private final int[] months;
+    private final int[] days;
+    private final int[] years;
+    private final int[] dayCounts;
+    private final Date[] dates;
+    private final LocalDate[] localDates;
+    private final LocalDate[] firstOfMonths;
+    private final int size;
+
+    private final ExecutorService executor;
+    private final int threads;
+
+    private DateDifferentialHarness(List<LocalDate> input, int threads) {
+        this.size = input.size();
+        this.months = new int[size];
+        this.days = new int[size];
+        this.years = new int[size];
+        this.dayCounts = new int[size];
+        this.dates = new Date[size];
+        this.localDates = new LocalDate[size];
+        this.firstOfMonths = new LocalDate[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate date = input.get(i);
+            months[i] = date.getMonthValue();
+            days[i] = date.getDayOfMonth();
+            years[i] = date.getYear();
+            dayCounts[i] = (int) (date.toEpochDay() + EPOCH_OFFSET);
+            dates[i] = new Date(months[i], days[i], years[i]);
+            localDates[i] = date;
+            firstOfMonths[i] = date.withDayOfMonth(1);
+        }
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int fromYear = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int toYear = args.length > 1 ? Integer.parseInt(args[1]) : 9999;
+        int randomDates = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<LocalDate> input = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(fromYear, 1, 1); date.getYear() <= toYear; date = date.plusDays(1)) {
+            input.add(date);
+        }
+        DateGenerator generator = new DateGenerator();
+        generator.setMinYear(fromYear);
+        generator.setMaxYear(toYear);
+        for (Date date : generator.generateRandomDates(randomDates)) {
+            input.add(LocalDate.of(date.getYear(), date.getMonth(), date.getDay()));
+        }
+
+        System.out.printf("%,d dates (years %d-%d and %,d random), %d threads%n%n",
+                input.size(), fromYear, toYear, randomDates, threads);
+
+        DateDifferentialHarness harness = new DateDifferentialHarness(input, threads);
+        try {
+            System.exit(harness.run() ? 0 : 1);
+        } finally {
+            harness.executor.shutdownNow();
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       OPERATIONS                                              |
+    //-----------------------------------------------------------------------------------------------|
+
+    private List<Operation> operations() {
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("isLeapYear",
+                i -> Date.isLeapYear(years[i]) ? 1 : 0,
+                i -> Year.isLeap(years[i]) ? 1 : 0));
+        operations.add(new Operation("getDaysInMonth",
+                i -> Date.getDaysInMonth(months[i], years[i]),
+                i -> YearMonth.of(years[i], months[i]).lengthOfMonth()));
+        operations.add(new Operation("isValidDate(day + 1)",
+                i -> Date.isValidDate(months[i], days[i] + 1, years[i]) ? 1 : 0,
+                i -> days[i] + 1 <= YearMonth.of(years[i], months[i]).lengthOfMonth() ? 1 : 0));
+        operations.add(new Operation("toDays",
+                i -> Date.toDays(months[i], days[i], years[i]),
+                i -> LocalDate.of(years[i], months[i], days[i]).toEpochDay() + EPOCH_OFFSET));
+        operations.add(new Operation("fromDays",
+                i -> pack(Date.fromDays(dayCounts[i])),
+                i -> pack(LocalDate.ofEpochDay(dayCounts[i] - EPOCH_OFFSET))));
+        operations.add(new Operation("getDayOfWeek",
+                i -> Date.getDayOfWeek(months[i], days[i], years[i]).hashCode(),
+                i -> DAY_NAMES[LocalDate.of(years[i], months[i], days[i]).getDayOfWeek().getValue()].hashCode()));
+        operations.add(new Operation("PackedDate.dayOfWeek",
+                i -> PackedDate.dayOfWeek(PackedDate.pack(months[i], days[i], years[i])),
+                i -> LocalDate.of(years[i], months[i], days[i]).getDayOfWeek().getValue()));
+        operations.add(new Operation("calculateDifference",
+                i -> {
+                    int j = partner(i);
+                    return Date.calculateDifference(months[i], days[i], years[i], months[j], days[j], years[j]);
+                },
+                i -> {
+                    int j = partner(i);
+                    return Math.abs(ChronoUnit.DAYS.between(LocalDate.of(years[i], months[i], days[i]),
+                            LocalDate.of(years[j], months[j], days[j])));
+                }));
+        operations.add(new Operation("isLeapYear()",
+                i -> dates[i].isLeapYear() ? 1 : 0,
+                i -> localDates[i].isLeapYear() ? 1 : 0));
+        operations.add(new Operation("getDaysInMonth()",
+                i -> dates[i].getDaysInMonth(),
+                i -> localDates[i].lengthOfMonth()));
+        operations.add(new Operation("toDays()",
+                i -> dates[i].toDays(),
+                i -> localDates[i].toEpochDay() + EPOCH_OFFSET));
+        operations.add(new Operation("getDayOfWeek()",
+                i -> dates[i].getDayOfWeek().hashCode(),
+                i -> DAY_NAMES[localDates[i].getDayOfWeek().getValue()].hashCode()));
+        operations.add(new Operation("calculateDifference(Date)",
+                i -> dates[i].calculateDifference(dates[partner(i)]),
+                i -> Math.abs(ChronoUnit.DAYS.between(localDates[i], localDates[partner(i)]))));
+        operations.add(new Operation("compareTo",
+                i -> Integer.signum(dates[i].compareTo(dates[partner(i)])),
+                i -> Integer.signum(localDates[i].compareTo(localDates[partner(i)]))));
+        operations.add(new Operation("between",
+                i -> {
+                    DatePeriod period = Date.between(dates[i], dates[partner(i)]);
+                    return period.toTotalMonths() * 100 + period.getDays();
+                },
+                i -> {
+                    Period period = Period.between(localDates[i], localDates[partner(i)]);
+                    return period.toTotalMonths() * 100 + period.getDays();
+                }));
+        // Sets each input date to its own day, which runs the full validation without changing the input
+        operations.add(new Operation("setDay",
+                i -> {
+                    dates[i].setDay(days[i]);
+                    return dates[i].getDay();
+                },
+                i -> firstOfMonths[i].withDayOfMonth(days[i]).getDayOfMonth()));
+        return operations;
+    }
+
+    // The other date of a two-date operation, far enough away to cover long differences
+    private int partner(int index) {
+        return size - 1 - index;
+    }
+
+    private static long pack(Date date) {
+        return ((long) date.getYear() << 9) | (date.getMonth() << 5) | date.getDay();
+    }
+
+    private static long pack(LocalDate date) {
+        return ((long) date.getYear() << 9) | (date.getMonthValue() << 5) | date.getDayOfMonth();
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       RUNNING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Checks and times every operation, returns true if all of them agree with java.time
+    private boolean run() throws Exception {
+        boolean passed = true;
+        List<String[]> rows = new ArrayList<>();
+
+        for (Operation operation : operations()) {
+            long mismatches = check(operation);
+            if (mismatches > 0) {
+                passed = false;
+                rows.add(new String[] { operation.name, "-", "-", "-", String.format("%,d mismatches", mismatches) });
+                continue;
+            }
+
+            double dateRate = throughput(operation.date);
+            double jdkRate = throughput(operation.jdk);
+            rows.add(new String[] { operation.name, String.format("%,.0f", dateRate), String.format("%,.0f", jdkRate),
+                    String.format("%.2fx", dateRate / jdkRate), "ok" });
+        }
+
+        System.out.printf("%n%-26s %18s %18s %9s  %s%n", "operation", "Date ops/s", "LocalDate ops/s", "Date/JDK", "check");
+        for (String[] row : rows) {
+            System.out.printf("%-26s %18s %18s %9s  %s%n", (Object[]) row);
+        }
+        return passed;
+    }
+
+    // Compares both kernels on every input, prints the first mismatches and returns their number
+    private long check(Operation operation) throws Exception {
+        AtomicLong mismatches = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int[] chunk : chunks()) {
+            futures.add(executor.submit(() -> {
+                for (int i = chunk[0]; i < chunk[1]; i++) {
+                    String dateValue;
+                    String jdkValue;
+                    try {
+                        dateValue = Long.toString(operation.date.apply(i));
+                    } catch (RuntimeException e) {
+                        dateValue = e.toString();
+                    }
+                    try {
+                        jdkValue = Long.toString(operation.jdk.apply(i));
+                    } catch (RuntimeException e) {
+                        jdkValue = e.toString();
+                    }
+
+                    if (!dateValue.equals(jdkValue) && mismatches.incrementAndGet() <= EXAMPLES) {
+                        System.out.printf("MISMATCH %s at %d/%d/%d: Date %s, LocalDate %s%n",
+                                operation.name, months[i], days[i], years[i], dateValue, jdkValue);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return mismatches.get();
+    }
+
+    // Runs a kernel over the whole input on all threads and returns the best rate in operations per second
+    private double throughput(Kernel kernel) throws Exception {
+        MethodHandle loop = loopCopy();
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int pass = 0; pass <= PASSES; pass++) {
+            long start = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int[] chunk : chunks()) {
+                futures.add(executor.submit(() -> sum(loop, kernel, chunk)));
+            }
+            for (Future<Long> future : futures) {
+                checksum += future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            // The first pass only warms up the JIT
+            if (pass > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+
+        // Keeps the results alive so the JIT cannot drop the kernel
+        if (checksum == 42) {
+            System.out.print("");
+        }
+        return size / (best / 1e9);
+    }
+
+    // Defines a new copy of KernelLoop and returns its sum method
+    private static MethodHandle loopCopy() throws IllegalAccessException, NoSuchMethodException {
+        MethodHandles.Lookup copy = MethodHandles.lookup().defineHiddenClass(LOOP, true);
+        return copy.findStatic(copy.lookupClass(), "sum", MethodType.methodType(long.class, Kernel.class, int.class, int.class));
+    }
+
+    // Runs a copy of the timing loop over one chunk
+    private static long sum(MethodHandle loop, Kernel kernel, int[] chunk) {
+        try {
+            return (long) loop.invokeExact(kernel, chunk[0], chunk[1]);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] loopClassFile() {
+        try (InputStream in = KernelLoop.class.getResourceAsStream("KernelLoop.class")) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Splits the input into a few chunks per thread
+    private List<int[]> chunks() {
+        int count = threads * 4;
+        int chunkSize = (size + count - 1) / count;
+        List<int[]> chunks = new ArrayList<>();
+        for (int from = 0; from < size; from += chunkSize) {
+            chunks.add(new int[] { from, Math.min(from + chunkSize, size) });
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import date.Date;
+import date.DateGenerator;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks DateGenerator.generateRandomDates for several batch sizes,
+ * using the same year range as the sorting example in test.Test.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class DateGeneratorBenchmark {
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private DateGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new DateGenerator();
+        generator.setMinYear(2000);
+        generator.setMaxYear(2025);
+    }
+
+    @Benchmark
+    public ArrayList<Date> generateRandomDates() {
+        return generator.generateRandomDates(size);
+    }
+}
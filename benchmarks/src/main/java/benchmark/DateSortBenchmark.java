@@ -0,0 +1,56 @@
+package benchmark;
+
+import date.Date;
+import date.DateGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks Collections.sort on lists of random dates.
+ * Each invocation sorts a fresh copy of the same unsorted list; copyOnly measures
+ * the copy alone so it can be subtracted from sort.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class DateSortBenchmark {
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private ArrayList<Date> dates;
+
+    @Setup
+    public void setUp() {
+        DateGenerator generator = new DateGenerator();
+        generator.setMinYear(2000);
+        generator.setMaxYear(2025);
+        dates = generator.generateRandomDates(size);
+    }
+
+    @Benchmark
+    public ArrayList<Date> copyOnly() {
+        return new ArrayList<>(dates);
+    }
+
+    @Benchmark
+    public ArrayList<Date> sort() {
+        ArrayList<Date> copy = new ArrayList<>(dates);
+        Collections.sort(copy);
+        return copy;
+    }
+}
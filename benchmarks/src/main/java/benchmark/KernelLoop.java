@@ -0,0 +1,27 @@
+package benchmark;
+
+/**
+ * The timing loop of {@link DateDifferentialHarness}. The harness defines a hidden copy of this class
+ * for every kernel it times, so the kernel call in each copy only ever sees one kernel and the JIT
+ * can inline it, as it would in code that calls the operation directly.
+ */
+final class KernelLoop {
+    private KernelLoop() {
+    }
+
+    /**
+     * Applies a kernel to every index of a range.
+     *
+     * @param kernel the kernel
+     * @param from   the first index (inclusive)
+     * @param to     the last index (exclusive)
+     * @return the sum of the results, to keep them alive
+     */
+    static long sum(DateDifferentialHarness.Kernel kernel, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += kernel.apply(i);
+        }
+        return sum;
+    }
+}
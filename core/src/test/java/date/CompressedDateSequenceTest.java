@@ -0,0 +1,109 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CompressedDateSequenceTest {
+    @Test
+    void roundTripsThroughTheBinaryFormat() throws IOException {
+        Random random = new Random(1);
+        for (int size : new int[] { 0, 1, 127, 128, 129, 1000, 10_000 }) {
+            int[] days = new int[size];
+            for (int i = 0; i < size; i++) {
+                // Mostly sorted with occasional large jumps in both directions
+                days[i] = random.nextInt(20) == 0 ? 1 + random.nextInt(3_000_000) : 700_000 + i + random.nextInt(5);
+            }
+
+            CompressedDateSequence sequence = CompressedDateSequence.encode(days);
+            CompressedDateSequence read = CompressedDateSequence.readFrom(new ByteArrayInputStream(write(sequence)));
+
+            assertEquals(size, read.size());
+            assertEquals(sequence.blockCount(), read.blockCount());
+            assertArrayEquals(days, read.decode());
+            for (int i = 0; i < size; i += 37) {
+                assertEquals(days[i], read.get(i));
+            }
+        }
+    }
+
+    @Test
+    void decodesBlocksAndDates() {
+        int[] days = new int[300];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = Date.toDays(1, 1, 2000) + 3 * i;
+        }
+        CompressedDateSequence sequence = CompressedDateSequence.encode(days);
+
+        int[] block = new int[CompressedDateSequence.BLOCK_SIZE];
+        assertEquals(44, sequence.decodeBlock(2, block));
+        assertArrayEquals(Arrays.copyOfRange(days, 256, 300), Arrays.copyOf(block, 44));
+        assertEquals(new Date(1, 1, 2000), sequence.decodeDates().get(0));
+    }
+
+    @Test
+    void rejectsCorruptStreams() throws IOException {
+        int[] days = new int[500];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 700_000 + i * 1000;
+        }
+        byte[] bytes = write(CompressedDateSequence.encode(days));
+
+        // Header: magic, size, length, then 4 block offsets
+        assertCorrupt(withInt(bytes, 4, 501));
+        assertCorrupt(withInt(bytes, 8, 10));
+        assertCorrupt(withInt(bytes, 12 + 4, 1));
+        assertCorrupt(withInt(bytes, 12 + 8, Integer.MAX_VALUE));
+        assertCorrupt(withInt(bytes, 12 + 4, readInt(bytes, 12 + 8)));
+        assertCorrupt(Arrays.copyOf(bytes, bytes.length - 1));
+
+        // A continuation bit on the last byte leaves the final value truncated
+        byte[] truncated = bytes.clone();
+        truncated[truncated.length - 1] |= (byte) 0x80;
+        assertCorrupt(truncated);
+    }
+
+    @Test
+    void rejectsHugeLengthsWithoutAllocating() throws IOException {
+        // A bare header that claims close to 2 GiB of data, with and without a matching size
+        assertCorrupt(header(Integer.MAX_VALUE / 5, Integer.MAX_VALUE - 100));
+        assertCorrupt(header(Integer.MAX_VALUE - 100, Integer.MAX_VALUE - 100));
+        assertCorrupt(header(10, Integer.MAX_VALUE - 100));
+    }
+
+    private static byte[] header(int size, int length) throws IOException {
+        byte[] bytes = write(CompressedDateSequence.encode(new int[0]));
+        return withInt(withInt(bytes, 4, size), 8, length);
+    }
+
+    private static void assertCorrupt(byte[] bytes) {
+        assertThrows(IOException.class, () -> CompressedDateSequence.readFrom(new ByteArrayInputStream(bytes)));
+    }
+
+    private static byte[] write(CompressedDateSequence sequence) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sequence.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static int readInt(byte[] bytes, int offset) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(bytes, offset, 4)).readInt();
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DataOutputStream(out).writeInt(value);
+        byte[] copy = bytes.clone();
+        System.arraycopy(out.toByteArray(), 0, copy, offset, 4);
+        return copy;
+    }
+}
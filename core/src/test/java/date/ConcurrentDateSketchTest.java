@@ -0,0 +1,148 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentDateSketchTest {
+    private static final int THREADS = 2000;
+    private static final int ADDS = 500;
+
+    // Day added by thread t at step i; every thread also adds the same few heavy days
+    private static int day(int thread, int i) {
+        return (i % 10 == 0) ? 700_000 + i % 50 : 700_000 + (thread * ADDS + i) % 20_000;
+    }
+
+    @Test
+    void virtualThreadsShareAFixedNumberOfStripes() throws Exception {
+        ConcurrentDateSketch<DateFrequencySketch> frequency = new ConcurrentDateSketch<>(new DateFrequencySketch(1 << 12, 4, 5), 6);
+        ConcurrentDateSketch<DateDistinctSketch> distinct = new ConcurrentDateSketch<>(new DateDistinctSketch(12));
+        assertEquals(8, frequency.stripes());
+        assertEquals(1, Integer.bitCount(distinct.stripes()));
+
+        // Snapshots taken while the threads add never go backwards and never exceed the final total
+        AtomicBoolean done = new AtomicBoolean();
+        List<Long> totals = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                totals.add(frequency.snapshot().totalCount());
+            }
+        });
+        reader.start();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ADDS; i++) {
+                        frequency.add(day(thread, i));
+                        distinct.add(day(thread, i));
+                        if (i % 100 == 0) {
+                            Thread.yield();
+                        }
+                    }
+                    frequency.update(sketch -> sketch.add(1_000_000, 0));
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        done.set(true);
+        reader.join();
+
+        for (int i = 1; i < totals.size(); i++) {
+            assertTrue(totals.get(i - 1) <= totals.get(i));
+            assertTrue(totals.get(i) <= (long) THREADS * ADDS);
+        }
+
+        // Counters and registers merge by addition and maximum, so the stripes add up to the sequential sketch
+        DateFrequencySketch expectedFrequency = new DateFrequencySketch(1 << 12, 4, 5);
+        DateDistinctSketch expectedDistinct = new DateDistinctSketch(12);
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < ADDS; i++) {
+                expectedFrequency.add(day(t, i));
+                expectedDistinct.add(day(t, i));
+            }
+        }
+
+        DateFrequencySketch frequencySnapshot = frequency.snapshot();
+        assertEquals((long) THREADS * ADDS, frequencySnapshot.totalCount());
+        assertArrayEquals(write(expectedDistinct), write(distinct.snapshot()));
+        for (int days = 700_000; days < 720_000; days += 7) {
+            assertEquals(expectedFrequency.estimate(days), frequencySnapshot.estimate(days));
+        }
+
+        // The heavy days are added 10 times as often as any other day
+        for (int days : frequencySnapshot.topDays()) {
+            assertTrue(days >= 700_000 && days < 700_050 && days % 10 == 0, () -> "heavy hitter " + days);
+        }
+    }
+
+    @Test
+    void estimatesDistinctDaysWithinTheErrorBound() throws Exception {
+        int precision = 12;
+        double bound = 4 * 1.04 / Math.sqrt(1 << precision); // 4 standard errors
+        for (int distinctDays : new int[] { 100, 5_000, 200_000 }) {
+            ConcurrentDateSketch<DateDistinctSketch> sketch = new ConcurrentDateSketch<>(new DateDistinctSketch(precision), 4);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                // Every day is added by two of the threads
+                int threads = 64;
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int days = 1 + thread / 2; days <= distinctDays; days += threads / 2) {
+                            sketch.add(700_000 + days);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+
+            long estimate = sketch.snapshot().estimate();
+            double error = Math.abs(estimate - distinctDays) / (double) distinctDays;
+            assertTrue(error <= bound, () -> "estimate " + estimate + " of " + distinctDays + " distinct days");
+        }
+    }
+
+    @Test
+    void snapshotsAreIndependentCopies() throws IOException {
+        ConcurrentDateSketch<DateFrequencySketch> sketch = new ConcurrentDateSketch<>(new DateFrequencySketch(64, 2, 3), 1);
+        sketch.add(new Date(1, 1, 2024));
+        DateFrequencySketch snapshot = sketch.snapshot();
+        sketch.add(new Date(1, 1, 2024));
+
+        assertEquals(1, snapshot.estimate(new Date(1, 1, 2024)));
+        assertEquals(2, sketch.snapshot().estimate(new Date(1, 1, 2024)));
+        DateFrequencySketch read = DateFrequencySketch.readFrom(new ByteArrayInputStream(write(snapshot)));
+        assertArrayEquals(snapshot.topDays(), read.topDays());
+    }
+
+    @Test
+    void rejectsInvalidStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentDateSketch<>(new DateDistinctSketch(10), 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentDateSketch<>(new DateDistinctSketch(10), 1025));
+    }
+
+    private static byte[] write(DateSketch<?> sketch) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sketch.writeTo(out);
+        return out.toByteArray();
+    }
+}
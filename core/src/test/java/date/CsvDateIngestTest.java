@@ -0,0 +1,133 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvDateIngestTest {
+    private static final int ROWS = 50_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEveryRow() throws IOException {
+        Path file = writeRows(directory.resolve("dates.csv"));
+        for (int parsers : new int[] { 1, 4 }) {
+            CsvDateIngest ingest = newIngest(file, parsers);
+            AtomicLong sum = new AtomicLong();
+            CsvDateIngest.Result result = ingest.run(batch -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    sum.addAndGet(PackedDate.toDays(batch.get(i)));
+                }
+            });
+
+            assertEquals(ROWS, result.rows());
+            assertEquals(ROWS / 10, result.invalid());
+            assertEquals(expectedSum(), sum.get());
+        }
+    }
+
+    @Test
+    void throwsTheReaderFailure() {
+        Path missing = directory.resolve("missing.csv");
+        for (int run = 0; run < 200; run++) {
+            CsvDateIngest ingest = newIngest(missing, 4);
+            assertThrows(NoSuchFileException.class, () -> ingest.run(batch -> { }));
+        }
+    }
+
+    @Test
+    void throwsTheSinkFailureWithFollowOnsSuppressed() throws IOException {
+        Path file = writeRows(directory.resolve("dates.csv"));
+        for (int run = 0; run < 50; run++) {
+            IllegalStateException failure = new IllegalStateException("sink is full");
+            CsvDateIngest ingest = newIngest(file, 4);
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> ingest.run(batch -> {
+                throw failure;
+            }));
+
+            assertSame(failure, thrown);
+            for (Throwable suppressed : thrown.getSuppressed()) {
+                assertTrue(suppressed instanceof InterruptedException || suppressed instanceof InterruptedIOException
+                        || suppressed instanceof ClosedByInterruptException, suppressed::toString);
+            }
+        }
+
+        CsvDateIngest ingest = newIngest(file, 2);
+        IOException wrapped = assertThrows(IOException.class, () -> ingest.run(batch -> {
+            throw new Exception("checked");
+        }));
+        assertEquals("checked", wrapped.getCause().getMessage());
+    }
+
+    @Test
+    void throwsWhenALineIsLongerThanAChunk() throws IOException {
+        Path file = directory.resolve("long.csv");
+        Files.writeString(file, "date\n" + "1".repeat(5000) + "\n2024-01-01\n");
+        CsvDateIngest ingest = newIngest(file, 4);
+        IOException thrown = assertThrows(IOException.class, () -> ingest.run(batch -> { }));
+        assertTrue(thrown.getMessage().startsWith("Line is longer"));
+    }
+
+    @Test
+    void stopsWhenInterrupted() throws IOException {
+        Path file = writeRows(directory.resolve("dates.csv"));
+        CsvDateIngest ingest = newIngest(file, 4);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () -> ingest.run(batch -> { }));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static CsvDateIngest newIngest(Path file, int parsers) {
+        CsvDateIngest ingest = new CsvDateIngest(file, 1);
+        ingest.setParsers(parsers);
+        ingest.setChunkSize(1024);
+        ingest.setBatchSize(100);
+        ingest.setQueueCapacity(2);
+        return ingest;
+    }
+
+    // Every 10th row has an invalid date, the others count up from 2000-01-01
+    private static Path writeRows(Path file) throws IOException {
+        StringBuilder csv = new StringBuilder("id,date\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(i).append(',');
+            if (i % 10 == 0) {
+                csv.append("2023-02-29");
+            } else {
+                Date date = Date.fromDays(Date.toDays(1, 1, 2000) + i);
+                csv.append(String.format("%d-%02d-%02d", date.getYear(), date.getMonth(), date.getDay()));
+            }
+            csv.append((i % 2 == 0) ? "\n" : "\r\n");
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static long expectedSum() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if (i % 10 != 0) {
+                sum += Date.toDays(1, 1, 2000) + i;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,118 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class DailyCounterTest {
+    private static final int FIRST = 738_000;
+    private static final int DAYS = 200;
+
+    @Test
+    void neverLosesOrDoubleCountsIncrements() throws InterruptedException {
+        DailyCounter counter = new DailyCounter(FIRST, 30, 4);
+        int threads = 8;
+        long[][] counted = new long[threads][DAYS];
+        AtomicBoolean stop = new AtomicBoolean();
+
+        // Half platform and half virtual threads, each counting what it managed to add
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] local = counted[t];
+            Random random = new Random(t);
+            Runnable writer = () -> {
+                while (!stop.get()) {
+                    int days = FIRST + random.nextInt(120);
+                    if (counter.increment(days)) {
+                        local[days - FIRST]++;
+                    }
+                }
+            };
+            writers.add((t % 2 == 0) ? Thread.ofPlatform().start(writer) : Thread.ofVirtual().start(writer));
+        }
+
+        // Every increment is reported by exactly one drain or roll; snapshots must not reset anything
+        long[] reported = new long[DAYS];
+        for (int i = 0; i < 300; i++) {
+            Thread.sleep(1);
+            switch (i % 3) {
+                case 0:
+                    addTo(reported, counter.drain());
+                    break;
+                case 1:
+                    if (counter.firstDay() < FIRST + 90) {
+                        addTo(reported, counter.rollTo(counter.firstDay() + 1));
+                    }
+                    break;
+                default:
+                    DailyCounter.Snapshot snapshot = counter.snapshot();
+                    assertEquals(counter.firstDay(), snapshot.firstDay());
+                    break;
+            }
+        }
+        stop.set(true);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        addTo(reported, counter.drain());
+
+        long[] expected = new long[DAYS];
+        for (long[] local : counted) {
+            for (int day = 0; day < DAYS; day++) {
+                expected[day] += local[day];
+            }
+        }
+        assertArrayEquals(expected, reported);
+        assertTrue(counter.firstDay() > FIRST);
+    }
+
+    @Test
+    void snapshotsKeepAndDrainsResetCounts() {
+        DailyCounter counter = new DailyCounter(100, 5, 3);
+        assertEquals(4, counter.stripes());
+
+        assertFalse(counter.increment(new Date(1, 1, 1)));
+        assertTrue(counter.increment(102));
+        assertTrue(counter.increment(102));
+        assertTrue(counter.add(104, 5));
+        assertFalse(counter.increment(105));
+
+        assertEquals(2, counter.get(102));
+        assertEquals(7, counter.snapshot().total());
+        assertEquals(7, counter.snapshot().total());
+
+        DailyCounter.Snapshot left = counter.rollTo(103);
+        assertEquals(100, left.firstDay());
+        assertArrayEquals(new long[] { 0, 0, 2 }, left.counts());
+        assertEquals(5, counter.get(104));
+        assertFalse(counter.increment(102));
+
+        assertEquals(5, counter.rollTo(1000).total());
+        assertEquals(0, counter.drain().total());
+        assertThrows(IllegalArgumentException.class, () -> counter.rollTo(999));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DailyCounter(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DailyCounter(1, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DailyCounter(1, 10, 1025));
+    }
+
+    private static void addTo(long[] reported, DailyCounter.Snapshot snapshot) {
+        for (int k = 0; k < snapshot.days(); k++) {
+            int day = snapshot.firstDay() - FIRST + k;
+            if (day < DAYS) {
+                reported[day] += snapshot.counts()[k];
+            }
+        }
+    }
+}
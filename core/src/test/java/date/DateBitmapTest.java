@@ -0,0 +1,201 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DateBitmapTest {
+    // Chunks of 65536 days covered by the random bitmaps
+    private static final int CHUNKS = 6;
+
+    @Test
+    void setAlgebraMatchesBitSetAcrossContainerKinds() {
+        Random random = new Random(4);
+        for (int round = 0; round < 40; round++) {
+            BitSet first = new BitSet();
+            BitSet second = new BitSet();
+            DateBitmap a = randomBitmap(random, first);
+            DateBitmap b = randomBitmap(random, second);
+
+            assertSame(and(first, second), a.and(b));
+            assertSame(or(first, second), a.or(b));
+            assertSame(andNot(first, second), a.andNot(b));
+            assertSame(xor(first, second), a.xor(b));
+            assertEquals(first.intersects(second), a.intersects(b));
+
+            // The operands are not modified
+            assertSame(first, a);
+            assertSame(second, b);
+        }
+    }
+
+    @Test
+    void convertsBetweenArrayAndBitmapChunks() {
+        DateBitmap bitmap = new DateBitmap();
+        BitSet expected = new BitSet();
+
+        // Grow one chunk past the array limit and shrink it back below it
+        for (int days = 1; days <= DateBitmap.ARRAY_LIMIT + 10; days++) {
+            bitmap.add(days * 3);
+            expected.set(days * 3);
+        }
+        assertSame(expected, bitmap);
+        for (int days = 1; days <= 20; days++) {
+            bitmap.remove(days * 3);
+            expected.clear(days * 3);
+        }
+        assertSame(expected, bitmap);
+
+        bitmap.removeRange(1, 65_535);
+        expected.clear(1, 65_536);
+        assertSame(expected, bitmap);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void roundTripsThroughTheBinaryFormat() throws IOException {
+        BitSet expected = new BitSet();
+        DateBitmap bitmap = randomBitmap(new Random(5), expected);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.writeTo(out);
+        DateBitmap read = DateBitmap.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertSame(expected, read);
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[0] = 0;
+        assertThrows(IOException.class, () -> DateBitmap.readFrom(new ByteArrayInputStream(corrupt)));
+    }
+
+    @Test
+    void rejectsCorruptChunks() throws IOException {
+        // Array chunks must be strictly increasing and must not hold day 0
+        assertCorrupt(arrayChunk(1, 5, 3, 9));
+        assertCorrupt(arrayChunk(1, 5, 5, 9));
+        assertCorrupt(arrayChunk(0, 0, 5));
+
+        // Bitmap chunks must hold as many days as their header says
+        long[] words = new long[1024];
+        words[3] = 0b1011;
+        assertCorrupt(bitmapChunk(1, 4, words));
+        words[0] = 1;
+        assertCorrupt(bitmapChunk(0, 4, words));
+
+        // A valid but sparse bitmap chunk reads back like the array form
+        words[0] = 0;
+        DateBitmap read = DateBitmap.readFrom(new ByteArrayInputStream(bitmapChunk(2, 3, words)));
+        assertEquals(3, read.cardinality());
+        assertArrayEquals(new int[] { (2 << 16) + 192, (2 << 16) + 193, (2 << 16) + 195 }, read.toArray());
+        read.add((2 << 16) + 194);
+        assertTrue(read.contains((2 << 16) + 194));
+        assertEquals(4, read.cardinality());
+    }
+
+    private static void assertCorrupt(byte[] bytes) {
+        assertThrows(IOException.class, () -> DateBitmap.readFrom(new ByteArrayInputStream(bytes)));
+    }
+
+    private static DataOutputStream header(ByteArrayOutputStream out, int key) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        stream.writeInt(0x44424D50);
+        stream.writeInt(1);
+        stream.writeChar(key);
+        return stream;
+    }
+
+    private static byte[] arrayChunk(int key, int... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream stream = header(out, key);
+        stream.writeByte(0);
+        stream.writeInt(values.length);
+        for (int value : values) {
+            stream.writeChar(value);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] bitmapChunk(int key, int cardinality, long[] words) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream stream = header(out, key);
+        stream.writeByte(1);
+        stream.writeInt(cardinality);
+        for (long word : words) {
+            stream.writeLong(word);
+        }
+        return out.toByteArray();
+    }
+
+    // Builds a bitmap that mixes empty, sparse (array) and dense (bitmap) chunks
+    private static DateBitmap randomBitmap(Random random, BitSet expected) {
+        DateBitmap bitmap = new DateBitmap();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int base = Math.max(1, chunk << 16);
+            switch (random.nextInt(4)) {
+                case 0:
+                    break;
+                case 1:
+                    for (int i = 0; i < 1 + random.nextInt(2000); i++) {
+                        int days = base + random.nextInt(65_536 - (base & 0xFFFF));
+                        bitmap.add(days);
+                        expected.set(days);
+                    }
+                    break;
+                case 2:
+                    int from = base + random.nextInt(20_000);
+                    int to = from + 5_000 + random.nextInt(30_000);
+                    bitmap.addRange(from, to);
+                    expected.set(from, to + 1);
+                    break;
+                default:
+                    for (int i = 0; i < 10_000; i++) {
+                        int days = base + random.nextInt(65_536 - (base & 0xFFFF));
+                        bitmap.add(days);
+                        expected.set(days);
+                    }
+            }
+        }
+        return bitmap;
+    }
+
+    private static void assertSame(BitSet expected, DateBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+        int[] iterated = new int[expected.cardinality()];
+        int[] position = { 0 };
+        actual.iterator().forEachRemaining((int days) -> iterated[position[0]++] = days);
+        assertArrayEquals(expected.stream().toArray(), iterated);
+    }
+
+    private static BitSet and(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static BitSet or(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.or(b);
+        return result;
+    }
+
+    private static BitSet andNot(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.andNot(b);
+        return result;
+    }
+
+    private static BitSet xor(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.xor(b);
+        return result;
+    }
+}
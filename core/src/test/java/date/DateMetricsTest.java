@@ -0,0 +1,141 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs in its own surefire execution with -Ddate.metrics=true (see core/pom.xml),
+ * because DateMetrics.ENABLED is read once when the class is loaded.
+ */
+class DateMetricsTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void reset() {
+        assertTrue(DateMetrics.ENABLED, "run with -Ddate.metrics=true");
+        DateMetrics.reset();
+    }
+
+    @Test
+    void countsExplicitValidationOnly() {
+        assertTrue(Date.isValidDate(1, 31, 2024));
+        assertEquals(false, Date.isValidDate(1, 1, 0));
+        assertEquals(false, Date.isValidDate(13, 1, 2024));
+        assertEquals(false, Date.isValidDate(2, 30, 2023));
+
+        // Constructors, setters and updateDate validate internally without counting as validation calls
+        new Date(1, 1, 2024);
+        assertThrows(IllegalArgumentException.class, () -> new Date(2, 30, 2023));
+        Date.getDayOfWeek(1, 1, 2024);
+        Date.calculateDifference(1, 1, 2024, 1, 2, 2024);
+        PackedDate.pack(1, 1, 2024);
+
+        Map<String, Long> metrics = DateMetrics.snapshot();
+        assertEquals(4, metrics.get("is_valid_date.calls"));
+        assertEquals(1, metrics.get("rejections.invalid_year"));
+        assertEquals(1, metrics.get("rejections.invalid_month"));
+        assertEquals(1, metrics.get("rejections.invalid_day"));
+        assertEquals(2, metrics.get("constructor.calls"));
+        assertEquals(1, metrics.get("constructor.exceptions"));
+    }
+
+    @Test
+    void countsSetterCallsAndExceptions() {
+        Date date = new Date(1, 31, 2024);
+        date.setMonth(3);
+        assertThrows(IllegalArgumentException.class, () -> date.setMonth(13));
+        date.setDay(30);
+        assertThrows(IllegalArgumentException.class, () -> date.setDay(32));
+        date.setYear(2025);
+        assertThrows(IllegalArgumentException.class, () -> date.setYear(0));
+        date.updateDate(2, 28, 2025);
+        assertThrows(IllegalArgumentException.class, () -> date.updateDate(2, 29, 2025));
+
+        Map<String, Long> metrics = DateMetrics.snapshot();
+        for (String operation : List.of("set_month", "set_day", "set_year", "update_date")) {
+            assertEquals(2, metrics.get(operation + ".calls"), operation);
+            assertEquals(1, metrics.get(operation + ".exceptions"), operation);
+        }
+        assertEquals(0, metrics.get("is_valid_date.calls"));
+        assertEquals(new Date(2, 28, 2025), date);
+    }
+
+    @Test
+    void recordsBatchesAndFlightRecorderEvents() throws IOException {
+        Path file = directory.resolve("metrics.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("date.DateGeneration");
+            recording.enable("date.DateSort");
+            recording.start();
+
+            DateGenerator generator = new DateGenerator();
+            generator.setMinYear(1900);
+            generator.setMaxYear(2100);
+            List<Date> dates = generator.generateRandomDates(1000);
+            try (OffHeapDateColumn column = OffHeapDateColumn.allocate(dates.size())) {
+                dates.forEach(column::append);
+                column.sort();
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Long> metrics = DateMetrics.snapshot();
+        assertEquals(1, metrics.get("generate_random_dates.calls"));
+        assertEquals(1000, metrics.get("generate_random_dates.rows"));
+        assertTrue(metrics.get("generate_random_dates.nanos") > 0);
+        assertEquals(1000, metrics.get("constructor.calls"));
+        assertEquals(1, metrics.get("sort.calls"));
+        assertEquals(1000, metrics.get("sort.rows"));
+        assertTrue(metrics.get("sort.nanos") > 0);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent generation = single(events, "date.DateGeneration");
+        assertEquals(1000, generation.getInt("count"));
+        assertEquals(1900, generation.getInt("minYear"));
+        assertEquals(2100, generation.getInt("maxYear"));
+        assertEquals(1000, single(events, "date.DateSort").getLong("rows"));
+    }
+
+    @Test
+    void keysDoNotDependOnTheDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            Map<String, Long> metrics = DateMetrics.snapshot();
+            assertTrue(metrics.containsKey("is_valid_date.calls"), metrics::toString);
+            assertTrue(metrics.containsKey("rejections.invalid_day"), metrics::toString);
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void resetsEveryCounter() {
+        Date.isValidDate(2, 30, 2023);
+        new DateGenerator().generateRandomDates(10);
+        DateMetrics.reset();
+        DateMetrics.snapshot().forEach((name, value) -> assertEquals(0, value, name));
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
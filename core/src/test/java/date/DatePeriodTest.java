@@ -0,0 +1,91 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DatePeriodTest {
+    // Date.toDays() of 1970-01-01, the epoch day 0 of java.time
+    private static final int EPOCH_OFFSET = 719163;
+
+    @Test
+    void betweenMatchesPeriod() {
+        Random random = new Random(7);
+        int first = Date.toDays(1, 1, 1);
+        int last = Date.toDays(12, 31, 9999);
+        for (int i = 0; i < 500_000; i++) {
+            int startDays = first + random.nextInt(last - first + 1);
+            // Half of the pairs are close together, where the month ends matter most
+            int endDays = (i % 2 == 0)
+                    ? Math.max(first, Math.min(last, startDays + random.nextInt(800) - 400))
+                    : first + random.nextInt(last - first + 1);
+            assertBetween(startDays, endDays);
+        }
+    }
+
+    @Test
+    void betweenMatchesPeriodAtMonthEnds() {
+        // Every pair of month-end days (28th to 31st and the 1st) over a full leap cycle
+        for (int startDays = Date.toDays(1, 1, 2096); startDays <= Date.toDays(12, 31, 2104); startDays++) {
+            if (Date.fromDays(startDays).getDay() < 28 && Date.fromDays(startDays).getDay() != 1) {
+                continue;
+            }
+            for (int endDays = Date.toDays(1, 1, 2099); endDays <= Date.toDays(12, 31, 2101); endDays++) {
+                int day = Date.fromDays(endDays).getDay();
+                if (day >= 28 || day == 1) {
+                    assertBetween(startDays, endDays);
+                }
+            }
+        }
+    }
+
+    @Test
+    void ageInYearsMatchesPeriod() {
+        Random random = new Random(8);
+        int[] birthDates = new int[10_000];
+        LocalDate asOf = LocalDate.of(2024, 2, 29);
+        int packedAsOf = PackedDate.pack(2, 29, 2024);
+        for (int i = 0; i < birthDates.length; i++) {
+            birthDates[i] = PackedDate.fromDays(Date.toDays(1, 1, 1900) + random.nextInt(45_000));
+        }
+
+        int[] ages = new int[birthDates.length];
+        PackedDateArrays.ageInYears(birthDates, packedAsOf, ages);
+        for (int i = 0; i < birthDates.length; i++) {
+            LocalDate birth = LocalDate.ofEpochDay(PackedDate.toDays(birthDates[i]) - EPOCH_OFFSET);
+            int expected = Period.between(birth, asOf).getYears();
+            assertEquals(expected, PackedDate.ageInYears(birthDates[i], packedAsOf), birth::toString);
+            assertEquals(expected, ages[i], birth::toString);
+        }
+
+        // Born on February 29: a year older on March 1 in common years
+        int leapling = PackedDate.pack(2, 29, 2000);
+        assertEquals(22, PackedDate.ageInYears(leapling, PackedDate.pack(2, 28, 2023)));
+        assertEquals(23, PackedDate.ageInYears(leapling, PackedDate.pack(3, 1, 2023)));
+    }
+
+    @Test
+    void formatsAndCompares() {
+        assertEquals("P0D", new DatePeriod(0, 0, 0).toString());
+        assertEquals("P1Y2M3D", new DatePeriod(1, 2, 3).toString());
+        assertEquals(Period.of(-1, -2, -3).toString(), new DatePeriod(-1, -2, -3).toString());
+        assertEquals(new DatePeriod(1, 2, 3), Date.between(new Date(1, 31, 2020), new Date(4, 3, 2021)));
+        assertEquals(14, new DatePeriod(1, 2, 3).toTotalMonths());
+        assertTrue(new DatePeriod(0, 0, -1).isNegative());
+        assertFalse(new DatePeriod(0, 0, 0).isNegative());
+    }
+
+    private static void assertBetween(int startDays, int endDays) {
+        Date start = Date.fromDays(startDays);
+        Date end = Date.fromDays(endDays);
+        Period expected = Period.between(LocalDate.ofEpochDay(startDays - EPOCH_OFFSET), LocalDate.ofEpochDay(endDays - EPOCH_OFFSET));
+        DatePeriod actual = DatePeriod.between(start, end);
+        assertEquals(new DatePeriod(expected.getYears(), expected.getMonths(), expected.getDays()), actual,
+                () -> start + " to " + end);
+    }
+}
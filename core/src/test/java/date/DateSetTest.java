@@ -0,0 +1,113 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DateSetTest {
+    @Test
+    void behavesLikeHashSet() {
+        Random random = new Random(2);
+        DateSet set = new DateSet();
+        Set<Integer> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // A narrow key range so that adds, removes and probe chains collide often
+            int days = 1 + random.nextInt(20_000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(days), set.add(days));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(days), set.remove(days));
+                    break;
+                default:
+                    assertEquals(expected.contains(days), set.contains(days));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), set.toSortedArray());
+    }
+
+    @Test
+    void growsWithoutLosingKeys() {
+        DateSet set = new DateSet(0);
+        for (int days = 1; days <= 100_000; days++) {
+            set.add(days);
+            set.add(days);
+        }
+        assertEquals(100_000, set.size());
+        for (int days = 1; days <= 100_000; days++) {
+            assertTrue(set.contains(days));
+        }
+    }
+
+    @Test
+    void sizesBulkAddsByDistinctKeys() {
+        // Five million rows over a thousand distinct days
+        int[] days = new int[5_000_000];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 700_000 + i % 1000;
+        }
+
+        DateSet set = new DateSet();
+        assertEquals(1000, set.addAll(days));
+        assertEquals(1000, set.size());
+        assertTrue(set.capacity() <= DateHashing.tableSize(1 << 16), () -> "capacity " + set.capacity());
+
+        // Distinct input beyond the pre-size limit still grows as needed
+        int[] distinct = new int[300_000];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = 1 + i;
+        }
+        DateSet grown = new DateSet();
+        assertEquals(distinct.length, grown.addAll(distinct));
+        for (int value : distinct) {
+            assertTrue(grown.contains(value));
+        }
+    }
+
+    @Test
+    void keepsDistinctDatesInOrder() {
+        List<Date> dates = List.of(new Date(3, 1, 2020), new Date(1, 1, 2020), new Date(3, 1, 2020), new Date(2, 29, 2020));
+        assertEquals(List.of(new Date(3, 1, 2020), new Date(1, 1, 2020), new Date(2, 29, 2020)), DateSet.distinct(dates));
+    }
+
+    @Test
+    void countsLikeHashMap() {
+        Random random = new Random(3);
+        int[] days = new int[100_000];
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 1 + random.nextInt(5000);
+            expected.merge(days[i], 1, Integer::sum);
+        }
+
+        DateIntMap counts = new DateIntMap();
+        counts.countAll(days);
+        assertEquals(expected.size(), counts.size());
+        expected.forEach((key, value) -> assertEquals(value, counts.getOrDefault(key, 0)));
+
+        DateLongMap sums = new DateLongMap();
+        for (int value : days) {
+            sums.addTo(value, value);
+        }
+        expected.forEach((key, value) -> assertEquals((long) key * value, sums.getOrDefault(key, 0)));
+    }
+
+    @Test
+    void rejectsInvalidKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new DateSet().add(0));
+        assertThrows(IllegalArgumentException.class, () -> new DateIntMap().put(-5, 1));
+    }
+}
@@ -0,0 +1,102 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class OffHeapDateColumnTest {
+    @Test
+    void sortMatchesArraysSort() {
+        Random random = new Random(9);
+        for (int size : new int[] { 0, 1, 2, 1000, 100_000 }) {
+            int[] packed = new int[size];
+            for (int i = 0; i < size; i++) {
+                // Years up to MAX_YEAR so that both radix digits vary
+                packed[i] = PackedDate.fromDays(1 + random.nextInt(Integer.MAX_VALUE / 2 - 1));
+            }
+
+            // Filled to capacity, so the sort has no spare room in the column
+            try (OffHeapDateColumn column = OffHeapDateColumn.allocate(size)) {
+                for (int value : packed) {
+                    column.append(value);
+                }
+                column.sort();
+
+                int[] expected = packed.clone();
+                Arrays.sort(expected);
+                assertArrayEquals(expected, column.segment().toArray(ValueLayout.JAVA_INT));
+                assertEquals(size, column.size());
+            }
+        }
+    }
+
+    @Test
+    void bulkOperationsMatchPackedDate() {
+        Random random = new Random(10);
+        int size = 5000;
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapDateColumn first = new OffHeapDateColumn(arena, size);
+            OffHeapDateColumn second = new OffHeapDateColumn(arena, size);
+            for (int i = 0; i < size; i++) {
+                first.append(Date.fromDays(1 + random.nextInt(3_652_059)));
+                second.append(PackedDate.fromDays(1 + random.nextInt(3_652_059)));
+            }
+
+            int[] differences = first.differences(second, arena).toArray(ValueLayout.JAVA_INT);
+            int[] days = first.toDays(arena).toArray(ValueLayout.JAVA_INT);
+            byte[] daysOfWeek = first.daysOfWeek(arena).toArray(ValueLayout.JAVA_BYTE);
+            for (int i = 0; i < size; i++) {
+                Date date = first.getDate(i);
+                assertEquals(date.calculateDifference(second.getDate(i)), differences[i]);
+                assertEquals(date.toDays(), days[i]);
+                assertEquals(PackedDate.dayOfWeek(first.get(i)), daysOfWeek[i]);
+            }
+            assertEquals(0, first.countInvalid());
+
+            first.set(0, (2023 << 9) | (2 << 5) | 29);
+            first.set(1, 0);
+            assertEquals(2, first.countInvalid());
+            assertThrows(IllegalArgumentException.class, () -> first.differences(new OffHeapDateColumn(arena, 1), arena));
+        }
+    }
+
+    @Test
+    void closeOnlyReleasesAnOwnedArena() {
+        OffHeapDateColumn owned = OffHeapDateColumn.allocate(4);
+        owned.append(new Date(1, 1, 2024));
+        MemorySegment segment = owned.segment();
+        owned.close();
+        assertFalse(segment.scope().isAlive());
+        assertThrows(IllegalStateException.class, () -> segment.get(ValueLayout.JAVA_INT, 0));
+
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapDateColumn borrowed = new OffHeapDateColumn(arena, 4);
+            borrowed.append(new Date(1, 1, 2024));
+            borrowed.close();
+            assertTrue(arena.scope().isAlive());
+            assertEquals(new Date(1, 1, 2024), borrowed.getDate(0));
+        }
+    }
+
+    @Test
+    void rejectsWritesPastCapacityAndBadIndexes() {
+        try (OffHeapDateColumn column = OffHeapDateColumn.allocate(2)) {
+            column.append(new Date(1, 1, 2024));
+            column.append(new Date(1, 2, 2024));
+            assertThrows(IllegalStateException.class, () -> column.append(new Date(1, 3, 2024)));
+            assertEquals(2, column.size());
+            assertThrows(IllegalArgumentException.class, () -> column.get(2));
+            assertThrows(IllegalArgumentException.class, () -> column.set(-1, 0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> OffHeapDateColumn.allocate(-1));
+    }
+}
@@ -0,0 +1,136 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PackedDateArraysTest {
+    // Lengths on both sides of the parallel threshold; the larger is not a multiple of a chunk
+    private static final int[] LENGTHS = {
+        0, 1, 1000, PackedDateArrays.PARALLEL_THRESHOLD - 1, PackedDateArrays.PARALLEL_THRESHOLD + 12_345
+    };
+
+    @Test
+    void convertsAndDiffersLikeDate() {
+        Random random = new Random(35);
+        for (int length : LENGTHS) {
+            int[] a = randomDates(random, length);
+            int[] b = randomDates(random, length);
+
+            int[] aDays = PackedDateArrays.toDays(a);
+            int[] bDays = new int[length + 3];
+            PackedDateArrays.toDays(b, bDays);
+            int[] expectedDifferences = new int[length];
+            for (int i = 0; i < length; i++) {
+                Date first = PackedDate.toDate(a[i]);
+                Date second = PackedDate.toDate(b[i]);
+                assertEquals(first.toDays(), aDays[i]);
+                assertEquals(second.toDays(), bDays[i]);
+                expectedDifferences[i] = first.calculateDifference(second);
+            }
+
+            int[] differences = new int[length];
+            PackedDateArrays.differences(a, b, differences);
+            assertArrayEquals(expectedDifferences, differences, "differences of " + length);
+
+            int[] dayDifferences = new int[length];
+            PackedDateArrays.dayDifferences(aDays, Arrays.copyOf(bDays, length), dayDifferences);
+            assertArrayEquals(expectedDifferences, dayDifferences, "day differences of " + length);
+        }
+    }
+
+    @Test
+    void fillsDifferenceMatricesLikeDate() {
+        Random random = new Random(36);
+        // Below the threshold, above it, and wider than a column tile
+        int[][] shapes = { { 0, 5 }, { 7, 0 }, { 100, 200 }, { 300, 300 }, { 70, 3000 } };
+        for (int[] shape : shapes) {
+            int[] a = randomDates(random, shape[0]);
+            int[] b = randomDates(random, shape[1]);
+
+            int[] expected = new int[shape[0] * shape[1]];
+            for (int i = 0; i < a.length; i++) {
+                for (int j = 0; j < b.length; j++) {
+                    expected[i * b.length + j] = PackedDate.toDate(a[i]).calculateDifference(PackedDate.toDate(b[j]));
+                }
+            }
+
+            String name = shape[0] + " x " + shape[1];
+            assertArrayEquals(expected, PackedDateArrays.differenceMatrix(a, b), name);
+            int[] out = new int[expected.length + 1];
+            PackedDateArrays.dayDifferenceMatrix(PackedDateArrays.toDays(a), PackedDateArrays.toDays(b), out);
+            assertArrayEquals(expected, Arrays.copyOf(out, expected.length), name);
+        }
+    }
+
+    @Test
+    void computesAgesLikePackedDate() {
+        Random random = new Random(37);
+        for (int length : LENGTHS) {
+            int asOf = PackedDate.pack(3, 1, 2024);
+            int[] birthDates = new int[length];
+            for (int i = 0; i < length; i++) {
+                birthDates[i] = PackedDate.fromDays(1 + random.nextInt(PackedDate.toDays(asOf)));
+            }
+
+            int[] ages = new int[length];
+            PackedDateArrays.ageInYears(birthDates, asOf, ages);
+            for (int i = 0; i < length; i++) {
+                assertEquals(PackedDate.ageInYears(birthDates[i], asOf), ages[i]);
+            }
+        }
+    }
+
+    @Test
+    void handlesBirthdayEdges() {
+        int[] birthDates = {
+            PackedDate.pack(6, 15, 2000), // Birthday today
+            PackedDate.pack(6, 16, 2000), // Birthday tomorrow
+            PackedDate.pack(6, 15, 2023), // Born on this day
+            PackedDate.pack(2, 29, 2000), // Leap day
+        };
+        int[] ages = new int[birthDates.length];
+
+        PackedDateArrays.ageInYears(birthDates, PackedDate.pack(6, 15, 2023), ages);
+        assertArrayEquals(new int[] { 23, 22, 0, 23 }, ages);
+
+        // Someone born on February 29 turns a year older on March 1 in common years
+        int[] leap = { PackedDate.pack(2, 29, 2000) };
+        int[] age = new int[1];
+        PackedDateArrays.ageInYears(leap, PackedDate.pack(2, 28, 2023), age);
+        assertEquals(22, age[0]);
+        PackedDateArrays.ageInYears(leap, PackedDate.pack(3, 1, 2023), age);
+        assertEquals(23, age[0]);
+        PackedDateArrays.ageInYears(leap, PackedDate.pack(2, 29, 2024), age);
+        assertEquals(24, age[0]);
+    }
+
+    @Test
+    void rejectsMismatchedAndOversizedArrays() {
+        int[] three = new int[3];
+        int[] two = new int[2];
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.toDays(three, two));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.differences(three, two, three));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.differences(three, three, two));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.dayDifferences(two, three, three));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.dayDifferences(three, three, two));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.dayDifferenceMatrix(three, three, new int[8]));
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.ageInYears(three, PackedDate.pack(1, 1, 2024), two));
+
+        // More cells than an array can hold is rejected before anything is allocated
+        int[] side = new int[50_000];
+        assertThrows(IllegalArgumentException.class, () -> PackedDateArrays.differenceMatrix(side, side));
+    }
+
+    private static int[] randomDates(Random random, int length) {
+        int[] packed = new int[length];
+        for (int i = 0; i < length; i++) {
+            packed[i] = PackedDate.fromDays(1 + random.nextInt(Date.toDays(12, 31, 3000)));
+        }
+        return packed;
+    }
+}
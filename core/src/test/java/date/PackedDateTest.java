@@ -0,0 +1,56 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+class PackedDateTest {
+    // Date.toDays() of 1970-01-01, the epoch day 0 of java.time
+    private static final int EPOCH_OFFSET = 719163;
+
+    @Test
+    void fromDaysMatchesLocalDate() {
+        int last = Date.toDays(12, 31, 10_000);
+        for (int days = 1; days <= last; days++) {
+            LocalDate expected = LocalDate.ofEpochDay(days - EPOCH_OFFSET);
+            int packed = PackedDate.fromDays(days);
+
+            assertEquals(expected.getYear(), PackedDate.year(packed));
+            assertEquals(expected.getMonthValue(), PackedDate.month(packed));
+            assertEquals(expected.getDayOfMonth(), PackedDate.day(packed));
+            assertEquals(days, PackedDate.toDays(packed));
+            assertEquals(expected.getDayOfWeek().getValue(), PackedDate.dayOfWeek(packed));
+        }
+    }
+
+    @Test
+    void dateFromDaysAgreesWithPackedDate() {
+        for (int days = 1; days < 800_000; days += 97) {
+            assertEquals(PackedDate.toDate(PackedDate.fromDays(days)), Date.fromDays(days));
+        }
+
+        // Beyond MAX_YEAR only the Date form exists
+        Date last = Date.fromDays(Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, last.toDays());
+        assertThrows(IllegalArgumentException.class, () -> PackedDate.fromDays(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsDayCountsBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> PackedDate.fromDays(0));
+        assertThrows(IllegalArgumentException.class, () -> Date.fromDays(-1));
+    }
+
+    @Test
+    void packsAndValidates() {
+        int packed = PackedDate.pack(2, 29, 2024);
+        assertEquals(new Date(2, 29, 2024), PackedDate.toDate(packed));
+        assertTrue(PackedDate.isValid(packed));
+        assertFalse(PackedDate.isValid((2023 << 9) | (2 << 5) | 29));
+        assertThrows(IllegalArgumentException.class, () -> PackedDate.pack(2, 29, 2023));
+    }
+}
@@ -0,0 +1,169 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RecurrenceTest {
+    // Date.toDays() of 1970-01-01, the epoch day 0 of java.time
+    private static final int EPOCH_OFFSET = 719163;
+
+    // Every day of these years is enumerated for the brute force side
+    private static final LocalDate FIRST = LocalDate.of(1990, 1, 1);
+    private static final LocalDate LAST = LocalDate.of(2039, 12, 31);
+
+    private static final LocalDate START = LocalDate.of(1993, 5, 17);
+
+    @Test
+    void dailyAndWeeklyMatchBruteForce() {
+        check(Recurrence.daily(toDate(START), 3),
+                date -> ChronoUnit.DAYS.between(START, date) % 3 == 0);
+        check(Recurrence.weekly(toDate(START), 2, 3),
+                date -> date.getDayOfWeek().getValue() == 3 && ChronoUnit.DAYS.between(START, date) % 14 < 7);
+    }
+
+    @Test
+    void monthlyMatchesBruteForce() {
+        check(Recurrence.monthlyOnDay(toDate(START), 1, 31),
+                date -> date.getDayOfMonth() == 31);
+        check(Recurrence.monthlyOnDay(toDate(START), 5, -3),
+                date -> monthsSinceStart(date) % 5 == 0 && date.getDayOfMonth() == date.lengthOfMonth() - 2);
+        check(Recurrence.monthlyOnWeekday(toDate(START), 1, 2, 2),
+                date -> date.getDayOfWeek().getValue() == 2 && (date.getDayOfMonth() - 1) / 7 == 1);
+        check(Recurrence.monthlyOnWeekday(toDate(START), 7, 5, 1),
+                date -> monthsSinceStart(date) % 7 == 0 && date.getDayOfWeek().getValue() == 1 && date.getDayOfMonth() > 28);
+        check(Recurrence.monthlyOnWeekday(toDate(START), 3, -1, 5),
+                date -> monthsSinceStart(date) % 3 == 0 && date.getDayOfWeek().getValue() == 5
+                        && date.getDayOfMonth() + 7 > date.lengthOfMonth());
+        for (int n : new int[] { 1, 2, 7, 23, -1, -2, -23 }) {
+            check(Recurrence.monthlyOnBusinessDay(toDate(START), 2, n),
+                    date -> monthsSinceStart(date) % 2 == 0 && isNthBusinessDay(date, n));
+        }
+    }
+
+    @Test
+    void yearlyMatchesBruteForce() {
+        check(Recurrence.yearlyOnDay(toDate(START), 1, 2, 29),
+                date -> date.getMonthValue() == 2 && date.getDayOfMonth() == 29);
+        check(Recurrence.yearlyOnDay(toDate(START), 3, 2, 29),
+                date -> (date.getYear() - START.getYear()) % 3 == 0 && date.getMonthValue() == 2 && date.getDayOfMonth() == 29);
+        check(Recurrence.yearlyOnWeekday(toDate(START), 1, 11, 4, 4),
+                date -> date.getMonthValue() == 11 && date.getDayOfWeek().getValue() == 4 && (date.getDayOfMonth() - 1) / 7 == 3);
+        check(Recurrence.yearlyOnWeekday(toDate(START), 2, 5, -1, 1),
+                date -> (date.getYear() - START.getYear()) % 2 == 0 && date.getMonthValue() == 5
+                        && date.getDayOfWeek().getValue() == 1 && date.getDayOfMonth() + 7 > 31);
+    }
+
+    @Test
+    void countsAcrossManyCycles() {
+        // Leap days between year 1 and year 2001: 2000 years hold 485 leap years
+        Recurrence leapDays = Recurrence.yearlyOnDay(new Date(1, 1, 1), 1, 2, 29);
+        assertEquals(485, leapDays.countBetween(new Date(1, 1, 1), new Date(12, 31, 2000)));
+
+        // Fridays the 13th repeat exactly every 400 years: 688 per cycle
+        Recurrence thirteenths = Recurrence.monthlyOnDay(new Date(1, 1, 1), 1, 13);
+        long fridays = thirteenths.occurrences(new Date(1, 1, 1))
+                .limit(400 * 12)
+                .filter(date -> date.toDays() % 7 == 5)
+                .count();
+        assertEquals(688, fridays);
+    }
+
+    @Test
+    void returnsDatesAndStopsAtTheEnd() {
+        Recurrence rule = Recurrence.monthlyOnWeekday(new Date(1, 1, 2024), 1, -1, 5);
+        assertEquals(new Date(2, 23, 2024), rule.next(new Date(1, 26, 2024)));
+        assertEquals(List.of(new Date(1, 26, 2024), new Date(2, 23, 2024), new Date(3, 29, 2024)),
+                rule.occurrences(new Date(1, 1, 2024)).limit(3).collect(Collectors.toList()));
+
+        // Monthly rules end with the largest packed year
+        Recurrence last = Recurrence.monthlyOnDay(new Date(11, 1, PackedDate.MAX_YEAR), 1, 15);
+        assertEquals(2, last.occurrenceDays(0).count());
+        assertNull(last.next(new Date(12, 15, PackedDate.MAX_YEAR)));
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.daily(new Date(1, 1, 2024), 0));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.weekly(new Date(1, 1, 2024), 1, 8));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.monthlyOnDay(new Date(1, 1, 2024), 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.monthlyOnWeekday(new Date(1, 1, 2024), 1, 6, 1));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.monthlyOnBusinessDay(new Date(1, 1, 2024), 1, -24));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.yearlyOnDay(new Date(1, 1, 2024), 1, 13, 1));
+    }
+
+    // Compares nextDays, occursOn and countBetween with the days on which the predicate holds
+    private static void check(Recurrence rule, Predicate<LocalDate> occursOn) {
+        List<Integer> expected = new ArrayList<>();
+        for (LocalDate day = FIRST; !day.isAfter(LAST); day = day.plusDays(1)) {
+            LocalDate date = day;
+            boolean hit = !date.isBefore(START) && occursOn.test(date);
+            assertEquals(hit, rule.occursOn(toDate(date)), () -> "occursOn " + date);
+            if (hit) {
+                expected.add(toDays(date));
+            }
+        }
+
+        int first = toDays(FIRST);
+        int last = toDays(LAST);
+        Random random = new Random(expected.size());
+        for (int i = 0; i < 2000; i++) {
+            int from = first + random.nextInt(last - first + 1);
+            int to = from + random.nextInt(last - from + 1);
+            int next = nextExpected(expected, from);
+            if (next >= 0) {
+                assertEquals(next, rule.nextDays(from), () -> "nextDays " + from);
+            }
+            assertEquals(expected.stream().filter(day -> day >= from && day <= to).count(), rule.countBetween(from, to),
+                    () -> "countBetween " + from + " " + to);
+        }
+    }
+
+    private static int nextExpected(List<Integer> expected, int from) {
+        for (int day : expected) {
+            if (day >= from) {
+                return day;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNthBusinessDay(LocalDate date, int n) {
+        if (date.getDayOfWeek().getValue() > 5) {
+            return false;
+        }
+        int before = 0;
+        int after = 0;
+        for (int day = 1; day <= date.lengthOfMonth(); day++) {
+            if (date.withDayOfMonth(day).getDayOfWeek().getValue() <= 5) {
+                if (day < date.getDayOfMonth()) {
+                    before++;
+                } else if (day > date.getDayOfMonth()) {
+                    after++;
+                }
+            }
+        }
+        return (n > 0) ? before == n - 1 : after == -n - 1;
+    }
+
+    private static long monthsSinceStart(LocalDate date) {
+        return ChronoUnit.MONTHS.between(START.withDayOfMonth(1), date.withDayOfMonth(1));
+    }
+
+    private static int toDays(LocalDate date) {
+        return (int) (date.toEpochDay() + EPOCH_OFFSET);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return new Date(date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+    }
+}
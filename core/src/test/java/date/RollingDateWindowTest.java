@@ -0,0 +1,104 @@
+package date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RollingDateWindowTest {
+    private static final int FIRST = 700_000;
+    private static final int DAYS = 3000;
+
+    @Test
+    void matchesBruteForceWindows() {
+        int[] widths = { 1, 7, 30, 365 };
+        Random random = new Random(6);
+        long[] dayCounts = new long[DAYS];
+        long[] daySums = new long[DAYS];
+
+        long[][] counts = new long[widths.length][DAYS];
+        long[][] sums = new long[widths.length][DAYS];
+        RollingDateWindow window = new RollingDateWindow((fromDays, toDays, w) -> {
+            for (int day = fromDays; day <= toDays; day++) {
+                for (int k = 0; k < widths.length; k++) {
+                    counts[k][day - FIRST] = w.count(k);
+                    sums[k][day - FIRST] = w.sum(k);
+                }
+            }
+        }, widths);
+
+        // Bursts of events separated by gaps of up to a year
+        int day = FIRST;
+        while (day < FIRST + DAYS) {
+            for (int events = random.nextInt(4); events > 0; events--) {
+                long value = random.nextInt(1000) - 200;
+                window.add(day, value);
+                dayCounts[day - FIRST]++;
+                daySums[day - FIRST] += value;
+            }
+            day += (random.nextInt(10) == 0) ? random.nextInt(400) : 1 + random.nextInt(3);
+        }
+        window.advanceTo(FIRST + DAYS);
+
+        for (int k = 0; k < widths.length; k++) {
+            long[] expectedCounts = new long[DAYS];
+            long[] expectedSums = new long[DAYS];
+            for (int d = 0; d < DAYS; d++) {
+                for (int back = 0; back < widths[k] && back <= d; back++) {
+                    expectedCounts[d] += dayCounts[d - back];
+                    expectedSums[d] += daySums[d - back];
+                }
+            }
+            assertArrayEquals(expectedCounts, counts[k], "counts of width " + widths[k]);
+            assertArrayEquals(expectedSums, sums[k], "sums of width " + widths[k]);
+        }
+    }
+
+    @Test
+    void queriesTheCurrentDay() {
+        RollingDateWindow window = new RollingDateWindow(null, 2, 10);
+        window.add(new Date(1, 1, 2024), 5);
+        window.add(new Date(1, 2, 2024), 7);
+        window.add(new Date(1, 3, 2024), 1);
+
+        assertEquals(Date.toDays(1, 3, 2024), window.currentDay());
+        assertEquals(2, window.count(0));
+        assertEquals(8, window.sum(0));
+        assertEquals(3, window.count(1));
+        assertEquals(13, window.sum(1));
+        assertThrows(IllegalArgumentException.class, () -> window.add(new Date(1, 1, 2024), 1));
+    }
+
+    @Test
+    void growsTheRingForTheWidestWindow() {
+        RollingDateWindow window = new RollingDateWindow(null, 3, RollingDateWindow.MAX_WIDTH);
+
+        // Far more distinct days than the initial ring holds, so it has to grow while keeping its order
+        int days = 100_000;
+        long sum = 0;
+        for (int day = 0; day < days; day++) {
+            window.add(FIRST + day, day);
+            sum += day;
+        }
+
+        assertEquals(3, window.count(0));
+        assertEquals(3L * (days - 2), window.sum(0));
+        assertEquals(days, window.count(1));
+        assertEquals(sum, window.sum(1));
+
+        window.advanceTo(FIRST + days - 1 + RollingDateWindow.MAX_WIDTH - 1);
+        assertEquals(0, window.count(0));
+        assertEquals(1, window.count(1));
+        assertEquals(days - 1, window.sum(1));
+    }
+
+    @Test
+    void rejectsInvalidWidths() {
+        assertThrows(IllegalArgumentException.class, () -> new RollingDateWindow(null));
+        assertThrows(IllegalArgumentException.class, () -> new RollingDateWindow(null, 30, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RollingDateWindow(null, RollingDateWindow.MAX_WIDTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> new RollingDateWindow(null, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,352 @@
+package date;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compressed, read-only sequence of dates stored as day counts (see {@link Date#toDays()}).
+ * Values are split into blocks of {@link #BLOCK_SIZE}; every block starts with its first value
+ * and continues with the zigzag varint encoded deltas between neighbours.
+ * Sorted sequences have small gaps, so most dates take a single byte.
+ * Each block can be decoded on its own, which gives random access without decoding the whole sequence.
+ */
+public final class CompressedDateSequence {
+    /**
+     * Number of values in every block except possibly the last one.
+     */
+    public static final int BLOCK_SIZE = 128;
+
+    // Marks the start of the binary format ("DSEQ")
+    private static final int MAGIC = 0x44534551;
+
+    // Number of encoded values
+    private final int size;
+
+    // Byte offset of every block inside data
+    private final int[] blockOffsets;
+
+    // Encoded blocks, one after another
+    private final byte[] data;
+
+    private CompressedDateSequence(int size, int[] blockOffsets, byte[] data) {
+        this.size = size;
+        this.blockOffsets = blockOffsets;
+        this.data = data;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       ENCODING                                                |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Encodes the given day counts. The input does not have to be sorted,
+     * but sorted input compresses best.
+     *
+     * @param days the day counts to encode
+     * @return the compressed sequence
+     */
+    public static CompressedDateSequence encode(int[] days) {
+        return encode(days, 0, days.length);
+    }
+
+    /**
+     * Encodes the day counts in the range [from, to) of the given array.
+     *
+     * @param days the day counts to encode
+     * @param from the first index to encode (inclusive)
+     * @param to   the last index to encode (exclusive)
+     * @return the compressed sequence
+     * @throws IllegalArgumentException if the range is out of the array bounds
+     */
+    public static CompressedDateSequence encode(int[] days, int from, int to) {
+        if (from < 0 || to > days.length || from > to) {
+            throw new IllegalArgumentException("Invalid range: [" + from + ", " + to + ") for length " + days.length);
+        }
+
+        int size = to - from;
+        int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+
+        // A varint never takes more than 5 bytes
+        byte[] buffer = new byte[Math.max(16, size * 2)];
+        int position = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (buffer.length - position < 5) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int value = days[from + i];
+            if (i % BLOCK_SIZE == 0) {
+                // First value of a block is stored as is so that the block can be decoded alone
+                blockOffsets[i / BLOCK_SIZE] = position;
+                position = writeVarint(buffer, position, zigzag(value));
+            } else {
+                position = writeVarint(buffer, position, zigzag(value - days[from + i - 1]));
+            }
+        }
+
+        return new CompressedDateSequence(size, blockOffsets, Arrays.copyOf(buffer, position));
+    }
+
+    /**
+     * Encodes the given dates in list order.
+     *
+     * @param dates the dates to encode, usually sorted with {@link java.util.Collections#sort(List)}
+     * @return the compressed sequence
+     */
+    public static CompressedDateSequence encode(List<Date> dates) {
+        int[] days = new int[dates.size()];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = dates.get(i).toDays();
+        }
+        return encode(days);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       DECODING                                                |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the number of values in the sequence.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of blocks in the sequence.
+     *
+     * @return the number of blocks
+     */
+    public int blockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Returns the number of encoded bytes, excluding the block index.
+     *
+     * @return the size of the encoded data in bytes
+     */
+    public int byteSize() {
+        return data.length;
+    }
+
+    /**
+     * Decodes a single block into the start of the given array.
+     *
+     * @param block the index of the block (0 to blockCount() - 1)
+     * @param out   the array to decode into, must hold at least BLOCK_SIZE values
+     * @return the number of decoded values
+     * @throws IllegalArgumentException if the block index is out of range
+     */
+    public int decodeBlock(int block, int[] out) {
+        return decodeBlock(block, out, 0);
+    }
+
+    /**
+     * Decodes all values into a new array.
+     *
+     * @return the decoded day counts
+     */
+    public int[] decode() {
+        int[] out = new int[size];
+        for (int block = 0; block < blockOffsets.length; block++) {
+            decodeBlock(block, out, block * BLOCK_SIZE);
+        }
+        return out;
+    }
+
+    /**
+     * Decodes all values into a list of dates.
+     *
+     * @return the decoded dates
+     */
+    public ArrayList<Date> decodeDates() {
+        int[] days = decode();
+        ArrayList<Date> dates = new ArrayList<>(days.length);
+        for (int value : days) {
+            dates.add(Date.fromDays(value));
+        }
+        return dates;
+    }
+
+    /**
+     * Returns the value at the given index. Only the block holding the value is decoded.
+     *
+     * @param index the index of the value (0 to size() - 1)
+     * @return the day count at the given index
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid index: " + index + " (must be 0-" + (size - 1) + ")");
+        }
+
+        int position = blockOffsets[index / BLOCK_SIZE];
+        int value = 0;
+        for (int i = 0; i <= index % BLOCK_SIZE; i++) {
+            int raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                raw |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value = (i == 0) ? unzigzag(raw) : value + unzigzag(raw);
+        }
+        return value;
+    }
+
+    private int decodeBlock(int block, int[] out, int outOffset) {
+        if (block < 0 || block >= blockOffsets.length) {
+            throw new IllegalArgumentException("Invalid block: " + block + " (must be 0-" + (blockOffsets.length - 1) + ")");
+        }
+
+        int count = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+        int position = blockOffsets[block];
+        int value = 0;
+
+        for (int i = 0; i < count; i++) {
+            // Single byte values are the common case for sorted input
+            int raw = data[position++];
+            if (raw < 0) {
+                raw &= 0x7F;
+                int shift = 7;
+                byte b;
+                do {
+                    b = data[position++];
+                    raw |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+
+            value = (i == 0) ? unzigzag(raw) : value + unzigzag(raw);
+            out[outOffset + i] = value;
+        }
+
+        return count;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SERIALIZATION                                           |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Writes the sequence in its binary format: a header, the block index and the encoded data.
+     * The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        stream.writeInt(MAGIC);
+        stream.writeInt(size);
+        stream.writeInt(data.length);
+        for (int offset : blockOffsets) {
+            stream.writeInt(offset);
+        }
+        stream.write(data);
+        stream.flush();
+    }
+
+    /**
+     * Reads a sequence written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the sequence
+     * @throws IOException if reading fails or the data is not a compressed date sequence
+     */
+    public static CompressedDateSequence readFrom(InputStream in) throws IOException {
+        DataInputStream stream = new DataInputStream(in);
+        if (stream.readInt() != MAGIC) {
+            throw new IOException("Not a compressed date sequence");
+        }
+
+        int size = stream.readInt();
+        int length = stream.readInt();
+        // Every value takes one to five bytes
+        if (size < 0 || length < size || length > 5L * size) {
+            throw new IOException("Corrupted compressed date sequence: size " + size + ", length " + length);
+        }
+
+        // The header is not trusted with an allocation: buffers only grow as far as the stream has data
+        int blocks = (int) ((size + (long) BLOCK_SIZE - 1) / BLOCK_SIZE);
+        byte[] offsetBytes = readExactly(stream, blocks * 4);
+        int[] blockOffsets = new int[blocks];
+        ByteBuffer.wrap(offsetBytes).asIntBuffer().get(blockOffsets);
+        byte[] data = readExactly(stream, length);
+
+        checkBlocks(size, blockOffsets, data);
+        return new CompressedDateSequence(size, blockOffsets, data);
+    }
+
+    // Reads exactly length bytes in bounded steps, so a corrupt length cannot allocate more than the stream holds
+    private static byte[] readExactly(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new IOException("Corrupted compressed date sequence: " + bytes.length + " of " + length + " bytes");
+        }
+        return bytes;
+    }
+
+    // Checks that every block starts where the previous one ends and holds exactly its number of varints,
+    // so that decoding a sequence that was read never runs past its data
+    private static void checkBlocks(int size, int[] blockOffsets, byte[] data) throws IOException {
+        int position = 0;
+        for (int block = 0; block < blockOffsets.length; block++) {
+            if (blockOffsets[block] != position) {
+                throw new IOException("Corrupted compressed date sequence: block " + block + " starts at "
+                        + blockOffsets[block] + " (must be " + position + ")");
+            }
+
+            int count = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+            for (int i = 0; i < count; i++) {
+                int bytes = 0;
+                byte b;
+                do {
+                    if (position >= data.length || ++bytes > 5) {
+                        throw new IOException("Corrupted compressed date sequence: truncated value in block " + block);
+                    }
+                    b = data[position++];
+                } while (b < 0);
+            }
+        }
+
+        if (position != data.length) {
+            throw new IOException("Corrupted compressed date sequence: " + (data.length - position) + " bytes after the last block");
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Maps signed values to unsigned ones so that small negative deltas stay small
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,145 @@
+package date;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Lets many threads feed one logical sketch. The sketch is split into a fixed number of stripes,
+ * each a sketch of its own; a thread adds to the stripe picked by a hash of its id, and
+ * {@link #snapshot()} merges all stripes into a new sketch. Memory is fixed by the number of stripes,
+ * however many threads (including virtual threads) add to the sketch.
+ *
+ * Every stripe is guarded by its own {@link ReentrantLock}, which, unlike a monitor, does not pin
+ * a virtual thread to its carrier while it waits. When the thread's own stripe is busy, e.g. because
+ * another thread id hashes to it, the add goes to the first free stripe after it, and only waits
+ * once every stripe is busy. A lock rather than per-counter atomics is needed because the heavy
+ * hitters of a {@link DateFrequencySketch} are a heap that changes in several places at once.
+ *
+ * A snapshot taken while other threads are adding is weakly consistent: it may miss their latest
+ * additions, but each stripe is copied under its lock, so it never sees a half-applied addition
+ * and never counts an addition twice.
+ *
+ * @param <S> the type of the sketch
+ */
+public final class ConcurrentDateSketch<S extends DateSketch<S>> {
+    // Empty sketch that the stripes and the snapshots are copied from
+    private final S prototype;
+
+    // The stripes, a power of two of them, and the lock of each
+    private final S[] stripes;
+    private final ReentrantLock[] locks;
+    private final int stripeMask;
+
+    /**
+     * Creates a concurrent sketch with one stripe per available processor.
+     *
+     * @param prototype an empty sketch with the parameters to use; it is not modified
+     */
+    public ConcurrentDateSketch(S prototype) {
+        this(prototype, Math.min(1024, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a concurrent sketch.
+     *
+     * @param prototype an empty sketch with the parameters to use; it is not modified
+     * @param stripes   the number of stripes, rounded up to a power of two (1-1024)
+     * @throws IllegalArgumentException if stripes is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentDateSketch(S prototype, int stripes) {
+        if (stripes < 1 || stripes > 1024) {
+            throw new IllegalArgumentException("Invalid stripes: " + stripes + " (must be 1-1024)");
+        }
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.prototype = prototype.emptyCopy();
+        this.stripes = (S[]) new DateSketch<?>[stripeCount];
+        this.locks = new ReentrantLock[stripeCount];
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            this.stripes[stripe] = this.prototype.emptyCopy();
+            this.locks[stripe] = new ReentrantLock();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Adds one occurrence of a day to the calling thread's stripe, or to a free one if it is busy.
+     *
+     * @param days the day count (1 and above)
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public void add(int days) {
+        int stripe = lockStripe();
+        try {
+            stripes[stripe].add(days);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Adds one occurrence of a date to the calling thread's stripe, or to a free one if it is busy.
+     *
+     * @param date the date
+     */
+    public void add(Date date) {
+        add(date.toDays());
+    }
+
+    /**
+     * Runs an update on the calling thread's stripe, or on a free one if it is busy, while holding
+     * its lock, e.g. to use operations that take more arguments. The stripe must not be kept or used
+     * after the action returns.
+     *
+     * @param action the update to apply to the stripe
+     */
+    public void update(Consumer<? super S> action) {
+        int stripe = lockStripe();
+        try {
+            action.accept(stripes[stripe]);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the number of stripes
+     */
+    public int stripes() {
+        return stripeMask + 1;
+    }
+
+    /**
+     * Merges all stripes into a new sketch.
+     *
+     * @return the merged sketch
+     */
+    public S snapshot() {
+        S result = prototype.emptyCopy();
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            locks[stripe].lock();
+            try {
+                result.merge(stripes[stripe]);
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        return result;
+    }
+
+    // Locks the calling thread's stripe, or the first free one after it, and returns its index
+    private int lockStripe() {
+        int home = DateHashing.mix((int) Thread.currentThread().threadId()) & stripeMask;
+        for (int probe = 0; probe <= stripeMask; probe++) {
+            int stripe = (home + probe) & stripeMask;
+            if (locks[stripe].tryLock()) {
+                return stripe;
+            }
+        }
+        locks[home].lock();
+        return home;
+    }
+}
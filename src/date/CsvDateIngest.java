@@ -0,0 +1,656 @@
+package date;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A streaming pipeline that loads one date column from a CSV file.
+ * It runs three concurrent stages connected by bounded queues:
+ * <ol>
+ * <li>a reader that pulls the file through a {@link FileChannel} in large chunks cut at line ends,</li>
+ * <li>one or more parsers that find the date field of every line and parse and validate it
+ * straight from the bytes, without creating a String per line, into batches of packed dates,</li>
+ * <li>a sink stage that hands every batch to a {@link DateBatchSink}.</li>
+ * </ol>
+ * Chunks and batches come from fixed pools and are recycled, so a slow sink holds the whole
+ * pipeline back instead of letting data pile up in memory.
+ * Lines with a missing or invalid date are counted and skipped. Quoted fields are supported,
+ * but line breaks inside quotes are not.
+ */
+public class CsvDateIngest {
+    /**
+     * The order of the year, month and day in the date field.
+     */
+    public enum FieldOrder {
+        YEAR_MONTH_DAY, MONTH_DAY_YEAR, DAY_MONTH_YEAR
+    }
+
+    /**
+     * Statistics of a finished run.
+     */
+    public static final class Result {
+        private final long valid;
+        private final long invalid;
+        private final long batches;
+        private final long bytes;
+        private final long nanos;
+
+        private Result(long valid, long invalid, long batches, long bytes, long nanos) {
+            this.valid = valid;
+            this.invalid = invalid;
+            this.batches = batches;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the number of data rows read, excluding the header and empty lines.
+         *
+         * @return the number of rows
+         */
+        public long rows() {
+            return valid + invalid;
+        }
+
+        /**
+         * Returns the number of rows with a valid date.
+         *
+         * @return the number of valid rows
+         */
+        public long valid() {
+            return valid;
+        }
+
+        /**
+         * Returns the number of rows with a missing or invalid date.
+         *
+         * @return the number of invalid rows
+         */
+        public long invalid() {
+            return invalid;
+        }
+
+        /**
+         * Returns the number of batches handed to the sink.
+         *
+         * @return the number of batches
+         */
+        public long batches() {
+            return batches;
+        }
+
+        /**
+         * Returns the number of bytes read from the file.
+         *
+         * @return the number of bytes
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the wall-clock time of the run.
+         *
+         * @return the time in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the ingest speed.
+         *
+         * @return the number of rows per second
+         */
+        public double rowsPerSecond() {
+            return (nanos == 0) ? 0 : rows() * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return rows() + " rows (" + valid + " valid, " + invalid + " invalid) in " + batches + " batches, "
+                    + String.format("%.0f rows/s", rowsPerSecond());
+        }
+    }
+
+    // A piece of the file that ends at a line end; data[start, end) holds whole lines
+    private static final class Chunk {
+        final byte[] data;
+        int start;
+        int end;
+
+        Chunk(int size) {
+            this.data = new byte[size];
+        }
+    }
+
+    // Queue markers for the end of the input
+    private static final Chunk END_OF_CHUNKS = new Chunk(0);
+    private static final DateBatch END_OF_BATCHES = new DateBatch(1);
+
+    // Input
+    private final Path file;
+    private final int column;
+
+    // Settings
+    private byte delimiter = ',';
+    private FieldOrder fieldOrder = FieldOrder.YEAR_MONTH_DAY;
+    private boolean skipHeader = true;
+    private int batchSize = 4096;
+    private int chunkSize = 1 << 20;
+    private int parsers = 1;
+    private int queueCapacity = 4;
+
+    // Filled in by the stages, read after they finished
+    private long bytesRead;
+    private long valid;
+    private long invalid;
+    private long batches;
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       CONSTRUCTORS                                            |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Creates a pipeline for the given file and column.
+     *
+     * @param file   the CSV file
+     * @param column the index of the date column (0 and above)
+     * @throws IllegalArgumentException if column is negative
+     */
+    public CsvDateIngest(Path file, int column) {
+        if (column < 0) {
+            throw new IllegalArgumentException("Invalid column: " + column + " (must be 0 and above)");
+        }
+        this.file = file;
+        this.column = column;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SETTINGS                                                |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Sets the field delimiter (',' by default).
+     *
+     * @param delimiter the delimiter, a single ASCII character
+     * @throws IllegalArgumentException if the delimiter is not ASCII, a quote or a line break
+     */
+    public void setDelimiter(char delimiter) {
+        if (delimiter > 127 || delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: '" + delimiter + "' (must be ASCII, not a quote or a line break)");
+        }
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * Sets the order of the year, month and day in the date field (YEAR_MONTH_DAY by default).
+     * The three numbers may be separated by '-', '/', '.' or spaces.
+     *
+     * @param fieldOrder the field order
+     */
+    public void setFieldOrder(FieldOrder fieldOrder) {
+        this.fieldOrder = fieldOrder;
+    }
+
+    /**
+     * Sets whether the first line is a header and skipped (true by default).
+     *
+     * @param skipHeader true to skip the first line
+     */
+    public void setSkipHeader(boolean skipHeader) {
+        this.skipHeader = skipHeader;
+    }
+
+    /**
+     * Sets the number of dates per batch handed to the sink (4096 by default).
+     *
+     * @param batchSize the batch size (1 and above)
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize + " (must be 1 and above)");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the size of the chunks read from the file (1 MiB by default). No line may be longer than a chunk.
+     *
+     * @param chunkSize the chunk size in bytes (1024 and above)
+     * @throws IllegalArgumentException if chunkSize is less than 1024
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1024) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize + " (must be 1024 and above)");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the number of parser threads (1 by default).
+     * With more than one parser, batches may reach the sink out of file order.
+     *
+     * @param parsers the number of parser threads (1 and above)
+     * @throws IllegalArgumentException if parsers is less than 1
+     */
+    public void setParsers(int parsers) {
+        if (parsers < 1) {
+            throw new IllegalArgumentException("Invalid number of parsers: " + parsers + " (must be 1 and above)");
+        }
+        this.parsers = parsers;
+    }
+
+    /**
+     * Sets how many chunks and batches may wait between stages (4 by default).
+     * Together with the chunk and batch sizes this bounds the memory of the pipeline.
+     *
+     * @param queueCapacity the queue capacity (1 and above)
+     * @throws IllegalArgumentException if queueCapacity is less than 1
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity + " (must be 1 and above)");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       RUNNING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Reads the whole file and hands every batch of valid dates to the sink.
+     * Blocks until all stages finished. If any stage fails, the others are cancelled and the failure of
+     * that stage is thrown, with the interruptions it caused in the other stages as suppressed exceptions.
+     *
+     * @param sink the consumer of the batches
+     * @return the statistics of the run
+     * @throws IOException if the file cannot be read, a line is longer than a chunk, the sink fails
+     *                     or the calling thread is interrupted
+     */
+    public Result run(DateBatchSink sink) throws IOException {
+        bytesRead = 0;
+        valid = 0;
+        invalid = 0;
+        batches = 0;
+
+        // Pools hold every buffer; full queues can take all of them plus one end marker per parser
+        int chunkCount = queueCapacity + parsers + 1;
+        int batchCount = queueCapacity + parsers + 1;
+        BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(chunkCount);
+        BlockingQueue<Chunk> fullChunks = new ArrayBlockingQueue<>(chunkCount + parsers);
+        BlockingQueue<DateBatch> freeBatches = new ArrayBlockingQueue<>(batchCount);
+        BlockingQueue<DateBatch> fullBatches = new ArrayBlockingQueue<>(batchCount + parsers);
+        for (int i = 0; i < chunkCount; i++) {
+            freeChunks.add(new Chunk(chunkSize));
+        }
+        for (int i = 0; i < batchCount; i++) {
+            freeBatches.add(new DateBatch(batchSize));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parsers + 2);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Queue<Throwable> followOns = new ConcurrentLinkedQueue<>();
+        List<Future<Void>> stages = new ArrayList<>();
+        boolean interrupted = false;
+        try {
+            // Every stage is submitted before anything can be cancelled
+            stages.add(completion.submit(stage(failure, followOns, () -> read(freeChunks, fullChunks))));
+            for (int i = 0; i < parsers; i++) {
+                stages.add(completion.submit(stage(failure, followOns, () -> parse(freeChunks, fullChunks, freeBatches, fullBatches))));
+            }
+            stages.add(completion.submit(stage(failure, followOns, () -> consume(sink, freeBatches, fullBatches))));
+            interrupted = !awaitStages(completion, stages);
+        } finally {
+            executor.shutdownNow();
+            interrupted |= !awaitTermination(executor);
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while ingesting dates");
+        }
+        rethrow(failure.get(), followOns);
+        return new Result(valid, invalid, batches, bytesRead, System.nanoTime() - start);
+    }
+
+    // Runs a stage and records how it failed: the first real failure is the root, everything else a follow-on
+    private static Callable<Void> stage(AtomicReference<Throwable> failure, Queue<Throwable> followOns, Callable<Void> stage) {
+        return () -> {
+            try {
+                return stage.call();
+            } catch (Exception | Error e) {
+                if (isFollowOn(e) || !failure.compareAndSet(null, e)) {
+                    followOns.add(e);
+                }
+                throw e;
+            }
+        };
+    }
+
+    // Failures caused by another stage being cancelled rather than by the stage itself
+    private static boolean isFollowOn(Throwable e) {
+        return e instanceof InterruptedException || e instanceof InterruptedIOException
+                || e instanceof ClosedByInterruptException || e instanceof CancellationException;
+    }
+
+    // Waits for the stages in completion order and cancels all of them as soon as one fails.
+    // Returns false if the calling thread was interrupted, in which case every stage is cancelled too
+    private static boolean awaitStages(CompletionService<Void> completion, List<Future<Void>> stages) {
+        for (int remaining = stages.size(); remaining > 0; remaining--) {
+            try {
+                if (completion.take().state() == Future.State.FAILED) {
+                    cancel(stages);
+                }
+            } catch (InterruptedException e) {
+                cancel(stages);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void cancel(List<Future<Void>> stages) {
+        for (Future<Void> stage : stages) {
+            stage.cancel(true);
+        }
+    }
+
+    // Waits until the stage threads exited, so that no stage still touches the sink or the counters.
+    // Returns false if the calling thread was interrupted while waiting
+    private static boolean awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    return !interrupted;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+    }
+
+    // Throws the root failure of a run with the follow-on failures of the other stages suppressed
+    private static void rethrow(Throwable root, Queue<Throwable> followOns) throws IOException {
+        if (root == null) {
+            root = followOns.poll();
+            if (root == null) {
+                return;
+            }
+        }
+        for (Throwable followOn : followOns) {
+            root.addSuppressed(followOn);
+        }
+
+        if (root instanceof IOException) {
+            throw (IOException) root;
+        }
+        if (root instanceof RuntimeException) {
+            throw (RuntimeException) root;
+        }
+        if (root instanceof Error) {
+            throw (Error) root;
+        }
+        throw new IOException("Date sink failed: " + root.getMessage(), root);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       STAGES                                                  |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Reader: fills chunks from the file and cuts them after the last complete line
+    private Void read(BlockingQueue<Chunk> freeChunks, BlockingQueue<Chunk> fullChunks) throws IOException, InterruptedException {
+        byte[] carry = new byte[chunkSize];
+        int carryLength = 0;
+        boolean firstChunk = true;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                Chunk chunk = freeChunks.take();
+                System.arraycopy(carry, 0, chunk.data, 0, carryLength);
+
+                ByteBuffer buffer = ByteBuffer.wrap(chunk.data, carryLength, chunk.data.length - carryLength);
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        endOfFile = true;
+                        break;
+                    }
+                    bytesRead += read;
+                }
+                int filled = buffer.position();
+
+                chunk.start = 0;
+                if (firstChunk && skipHeader) {
+                    int headerEnd = indexOf(chunk.data, (byte) '\n', 0, filled);
+                    if (headerEnd < 0 && !endOfFile) {
+                        throw new IOException("Header line is longer than the chunk size " + chunkSize);
+                    }
+                    chunk.start = (headerEnd < 0) ? filled : headerEnd + 1;
+                }
+                firstChunk = false;
+
+                if (endOfFile) {
+                    chunk.end = filled;
+                    carryLength = 0;
+                } else {
+                    // Searching from 0 also finds the end of a skipped header, which leaves an empty chunk
+                    int lastLineEnd = lastIndexOf(chunk.data, (byte) '\n', 0, filled);
+                    if (lastLineEnd < 0) {
+                        throw new IOException("Line is longer than the chunk size " + chunkSize);
+                    }
+                    chunk.end = lastLineEnd + 1;
+                    carryLength = filled - chunk.end;
+                    System.arraycopy(chunk.data, chunk.end, carry, 0, carryLength);
+                }
+                fullChunks.put(chunk);
+            }
+        }
+
+        for (int i = 0; i < parsers; i++) {
+            fullChunks.put(END_OF_CHUNKS);
+        }
+        return null;
+    }
+
+    // Parser: turns the lines of every chunk into packed dates and fills batches
+    private Void parse(BlockingQueue<Chunk> freeChunks, BlockingQueue<Chunk> fullChunks,
+                       BlockingQueue<DateBatch> freeBatches, BlockingQueue<DateBatch> fullBatches) throws InterruptedException {
+        DateBatch batch = freeBatches.take();
+
+        for (Chunk chunk = fullChunks.take(); chunk != END_OF_CHUNKS; chunk = fullChunks.take()) {
+            byte[] data = chunk.data;
+            int lineStart = chunk.start;
+            while (lineStart < chunk.end) {
+                int lineEnd = indexOf(data, (byte) '\n', lineStart, chunk.end);
+                int next = (lineEnd < 0) ? chunk.end : lineEnd + 1;
+                if (lineEnd < 0) {
+                    lineEnd = chunk.end;
+                }
+                if (lineEnd > lineStart && data[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+
+                if (lineEnd > lineStart) {
+                    int packed = parseLine(data, lineStart, lineEnd);
+                    if (packed < 0) {
+                        batch.addInvalid();
+                    } else {
+                        batch.add(packed);
+                        if (batch.isFull()) {
+                            fullBatches.put(batch);
+                            batch = freeBatches.take();
+                        }
+                    }
+                }
+                lineStart = next;
+            }
+            freeChunks.put(chunk);
+        }
+
+        if (batch.size() > 0 || batch.invalid() > 0) {
+            fullBatches.put(batch);
+        } else {
+            freeBatches.put(batch);
+        }
+        fullBatches.put(END_OF_BATCHES);
+        return null;
+    }
+
+    // Sink stage: hands batches to the sink and recycles them
+    private Void consume(DateBatchSink sink, BlockingQueue<DateBatch> freeBatches, BlockingQueue<DateBatch> fullBatches) throws Exception {
+        int running = parsers;
+        while (running > 0) {
+            DateBatch batch = fullBatches.take();
+            if (batch == END_OF_BATCHES) {
+                running--;
+                continue;
+            }
+
+            valid += batch.size();
+            invalid += batch.invalid();
+            if (batch.size() > 0) {
+                batches++;
+                sink.accept(batch);
+            }
+            batch.clear();
+            freeBatches.put(batch);
+        }
+        return null;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       PARSING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Finds the date field of a line and parses it, returns -1 if it is missing or invalid
+    private int parseLine(byte[] data, int from, int to) {
+        int field = 0;
+        int fieldStart = from;
+        boolean quoted = false;
+
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == delimiter && !quoted) {
+                if (field == column) {
+                    return parseDate(data, fieldStart, i);
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        return (field == column) ? parseDate(data, fieldStart, to) : -1;
+    }
+
+    // Parses three numbers separated by '-', '/', '.', spaces or quotes, returns -1 if they are not a valid date
+    private int parseDate(byte[] data, int from, int to) {
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        int numbers = 0;
+        int value = 0;
+        int digits = 0;
+
+        for (int i = from; i <= to; i++) {
+            byte b = (i < to) ? data[i] : (byte) ' ';
+            if (b >= '0' && b <= '9') {
+                if (++digits > 9) {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            } else if (b == '-' || b == '/' || b == '.' || b == ' ' || b == '"' || b == '\t') {
+                if (digits > 0) {
+                    if (numbers == 0) {
+                        first = value;
+                    } else if (numbers == 1) {
+                        second = value;
+                    } else if (numbers == 2) {
+                        third = value;
+                    } else {
+                        return -1;
+                    }
+                    numbers++;
+                    value = 0;
+                    digits = 0;
+                }
+            } else {
+                return -1;
+            }
+        }
+        if (numbers != 3) {
+            return -1;
+        }
+
+        int year;
+        int month;
+        int day;
+        switch (fieldOrder) {
+            case YEAR_MONTH_DAY:
+                year = first;
+                month = second;
+                day = third;
+                break;
+            case MONTH_DAY_YEAR:
+                month = first;
+                day = second;
+                year = third;
+                break;
+            default:
+                day = first;
+                month = second;
+                year = third;
+                break;
+        }
+
+        if (year < 1 || year > PackedDate.MAX_YEAR || month < 1 || month > 12 || day < 1 || day > PackedDate.daysInMonth(month, year)) {
+            return -1;
+        }
+        return (year << 9) | (month << 5) | day;
+    }
+
+    private static int indexOf(byte[] data, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] data, byte value, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
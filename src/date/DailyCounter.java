@@ -0,0 +1,425 @@
+package date;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-day event counters for a window of consecutive days, incremented from many threads at once.
+ * A date maps to its offset from the first day of the window, so a count is one array slot
+ * rather than a map entry.
+ *
+ * Like a LongAdder, every day has one cell per stripe and a thread always adds to the cell of its
+ * own stripe. The cells of a stripe are contiguous and the stripes are padded apart by a cache line,
+ * so threads on different stripes never write to the same cache line. Increments take no locks
+ * and work the same from platform and virtual threads.
+ *
+ * {@link #snapshot()}, {@link #drain()} and {@link #rollTo(int)} swap in a new set of cells and then
+ * wait until every increment that could still see the old cells has finished, a writer-reader phaser
+ * kept per stripe. The counts they report are therefore an exact cut: each increment is either in them
+ * or in the counts that follow, never in both and never lost.
+ */
+public final class DailyCounter {
+    /**
+     * The counts of a window of days at one point in time.
+     */
+    public static final class Snapshot {
+        private final int firstDay;
+        private final long[] counts;
+
+        private Snapshot(int firstDay, long[] counts) {
+            this.firstDay = firstDay;
+            this.counts = counts;
+        }
+
+        /**
+         * Returns the first day of the window.
+         *
+         * @return the day count of the first day
+         */
+        public int firstDay() {
+            return firstDay;
+        }
+
+        /**
+         * Returns the number of days in the window.
+         *
+         * @return the number of days
+         */
+        public int days() {
+            return counts.length;
+        }
+
+        /**
+         * Returns the count of a day.
+         *
+         * @param days the day count
+         * @return the count, or 0 if the day is outside the window
+         */
+        public long get(int days) {
+            long offset = (long) days - firstDay;
+            return offset >= 0 && offset < counts.length ? counts[(int) offset] : 0;
+        }
+
+        /**
+         * Returns the count of a date.
+         *
+         * @param date the date
+         * @return the count, or 0 if the date is outside the window
+         */
+        public long get(Date date) {
+            return get(date.toDays());
+        }
+
+        /**
+         * Returns the counts of every day, starting with the first day.
+         *
+         * @return a copy of the counts
+         */
+        public long[] counts() {
+            return counts.clone();
+        }
+
+        /**
+         * Returns the sum of the counts of every day.
+         *
+         * @return the total count
+         */
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    // Cells of one set of counts; replaced as a whole by snapshot, drain and roll
+    private static final class Window {
+        final int firstDay;
+        final long[] cells;
+
+        Window(int firstDay, long[] cells) {
+            this.firstDay = firstDay;
+            this.cells = cells;
+        }
+    }
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Longs per cache line
+    private static final int PAD = 8;
+
+    // Positions of the phaser counters inside a stripe's cache line
+    private static final int START = 0;
+    private static final int EVEN_END = 1;
+    private static final int ODD_END = 2;
+
+    private final int windowDays;
+    private final int stripeMask;
+
+    // Distance between the cells of two stripes, padded to whole cache lines
+    private final int stride;
+
+    // Phaser counters, one padded cache line per stripe
+    private final long[] epochs;
+
+    private volatile Window window;
+
+    // Serializes snapshot, drain and roll; increments never take it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a counter with one stripe per available processor.
+     *
+     * @param firstDay   the day count of the first day in the window (1 and above)
+     * @param windowDays the number of days in the window (1 and above)
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public DailyCounter(int firstDay, int windowDays) {
+        this(firstDay, windowDays, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a counter.
+     *
+     * @param firstDay   the day count of the first day in the window (1 and above)
+     * @param windowDays the number of days in the window (1 and above)
+     * @param stripes    the number of stripes, rounded up to a power of two (1-1024)
+     * @throws IllegalArgumentException if an argument is out of range or the cells would not fit into an array
+     */
+    public DailyCounter(int firstDay, int windowDays, int stripes) {
+        DateHashing.checkKey(firstDay);
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Invalid window: " + windowDays + " (must be 1 and above)");
+        }
+        if (stripes < 1 || stripes > 1024) {
+            throw new IllegalArgumentException("Invalid stripes: " + stripes + " (must be 1-1024)");
+        }
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        long stride = ((long) windowDays + PAD - 1) / PAD * PAD + PAD;
+        if ((stripeCount + 1) * stride > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Window too large: " + windowDays + " days x " + stripeCount + " stripes");
+        }
+
+        this.windowDays = windowDays;
+        this.stripeMask = stripeCount - 1;
+        this.stride = (int) stride;
+        this.epochs = new long[(stripeCount + 2) * PAD];
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            epochs[epoch(stripe, ODD_END)] = Long.MIN_VALUE;
+        }
+        this.window = newWindow(firstDay);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       INCREMENTS                                              |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Adds one to the count of a day.
+     *
+     * @param days the day count
+     * @return true if the day is in the window and was counted, false otherwise
+     */
+    public boolean increment(int days) {
+        return add(days, 1);
+    }
+
+    /**
+     * Adds one to the count of a date.
+     *
+     * @param date the date
+     * @return true if the date is in the window and was counted, false otherwise
+     */
+    public boolean increment(Date date) {
+        return add(date.toDays(), 1);
+    }
+
+    /**
+     * Adds one to the count of a packed date (see {@link PackedDate}).
+     *
+     * @param packed the packed date
+     * @return true if the date is in the window and was counted, false otherwise
+     */
+    public boolean incrementPacked(int packed) {
+        return add(PackedDate.toDays(packed), 1);
+    }
+
+    /**
+     * Adds to the count of a day.
+     *
+     * @param days  the day count
+     * @param delta the amount to add
+     * @return true if the day is in the window and was counted, false otherwise
+     */
+    public boolean add(int days, long delta) {
+        int stripe = stripe();
+        int start = epoch(stripe, START);
+        long phase = (long) LONGS.getAndAdd(epochs, start, 1L);
+        try {
+            Window current = window;
+            long offset = (long) days - current.firstDay;
+            if (offset < 0 || offset >= windowDays) {
+                return false;
+            }
+            LONGS.getAndAdd(current.cells, stripe * stride + PAD + (int) offset, delta);
+            return true;
+        } finally {
+            LONGS.getAndAdd(epochs, epoch(stripe, phase < 0 ? ODD_END : EVEN_END), 1L);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       READING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the first day of the window.
+     *
+     * @return the day count of the first day
+     */
+    public int firstDay() {
+        return window.firstDay;
+    }
+
+    /**
+     * Returns the number of days in the window.
+     *
+     * @return the number of days
+     */
+    public int windowDays() {
+        return windowDays;
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the number of stripes
+     */
+    public int stripes() {
+        return stripeMask + 1;
+    }
+
+    /**
+     * Returns the current count of a day without waiting for increments in progress,
+     * like {@link java.util.concurrent.atomic.LongAdder#sum()}. While a snapshot or roll is
+     * carrying the counts over to new cells, the result may briefly be too low.
+     *
+     * @param days the day count
+     * @return the count, or 0 if the day is outside the window
+     */
+    public long get(int days) {
+        Window current = window;
+        long offset = (long) days - current.firstDay;
+        if (offset < 0 || offset >= windowDays) {
+            return 0;
+        }
+
+        long count = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            count += (long) LONGS.getVolatile(current.cells, stripe * stride + PAD + (int) offset);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the current count of a date without waiting for increments in progress.
+     *
+     * @param date the date
+     * @return the count, or 0 if the date is outside the window
+     */
+    public long get(Date date) {
+        return get(date.toDays());
+    }
+
+    /**
+     * Returns the counts of every day in the window as of one instant. Increments may continue meanwhile.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            Window old = swap(newWindow(window.firstDay));
+            long[] counts = sum(old, 0, windowDays);
+            addTo(window, counts);
+            return new Snapshot(old.firstDay, counts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the counts of every day in the window and resets them to zero in the same instant,
+     * so each increment is reported by exactly one drain.
+     *
+     * @return the drained counts
+     */
+    public Snapshot drain() {
+        lock.lock();
+        try {
+            Window old = swap(newWindow(window.firstDay));
+            return new Snapshot(old.firstDay, sum(old, 0, windowDays));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the window forward so that it starts at the given day. The days that leave the window
+     * are returned with their final counts; the counts of the days that stay are kept.
+     * Increments for days before the new first day are rejected from then on.
+     *
+     * @param firstDay the day count of the new first day, not before the current one
+     * @return the final counts of the days that left the window, starting with the old first day
+     * @throws IllegalArgumentException if firstDay is before the current first day
+     */
+    public Snapshot rollTo(int firstDay) {
+        lock.lock();
+        try {
+            int oldFirstDay = window.firstDay;
+            if (firstDay < oldFirstDay) {
+                throw new IllegalArgumentException("Invalid first day: " + firstDay + " (must be " + oldFirstDay + " and above)");
+            }
+
+            Window old = swap(newWindow(firstDay));
+            int shift = (int) Math.min((long) firstDay - oldFirstDay, windowDays);
+            addTo(window, sum(old, shift, windowDays));
+            return new Snapshot(oldFirstDay, sum(old, 0, shift));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the window forward so that it starts at the given date.
+     *
+     * @param date the new first day, not before the current one
+     * @return the final counts of the days that left the window
+     * @throws IllegalArgumentException if the date is before the current first day
+     */
+    public Snapshot rollTo(Date date) {
+        return rollTo(date.toDays());
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    private Window newWindow(int firstDay) {
+        return new Window(firstDay, new long[(stripeMask + 2) * stride]);
+    }
+
+    // The stripe of the calling thread
+    private int stripe() {
+        return DateHashing.mix((int) Thread.currentThread().threadId()) & stripeMask;
+    }
+
+    // Index of a phaser counter, one cache line per stripe after a leading pad
+    private static int epoch(int stripe, int counter) {
+        return (stripe + 1) * PAD + counter;
+    }
+
+    // Installs new cells and waits until no increment can still write to the old ones
+    private Window swap(Window next) {
+        Window old = window;
+        window = next;
+
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            boolean nextPhaseIsEven = (long) LONGS.getVolatile(epochs, epoch(stripe, START)) < 0;
+            long initial = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+            int nextEnd = epoch(stripe, nextPhaseIsEven ? EVEN_END : ODD_END);
+            int previousEnd = epoch(stripe, nextPhaseIsEven ? ODD_END : EVEN_END);
+
+            LONGS.setVolatile(epochs, nextEnd, initial);
+            long startAtFlip = (long) LONGS.getAndSet(epochs, epoch(stripe, START), initial);
+            while ((long) LONGS.getVolatile(epochs, previousEnd) != startAtFlip) {
+                Thread.yield();
+            }
+        }
+        return old;
+    }
+
+    // Sums the stripes of the days from, from + 1, ..., to - 1 of a window that no thread writes to
+    private long[] sum(Window source, int from, int to) {
+        long[] counts = new long[to - from];
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * stride + PAD;
+            for (int i = from; i < to; i++) {
+                counts[i - from] += source.cells[base + i];
+            }
+        }
+        return counts;
+    }
+
+    // Adds counts to the days of a live window from its first day on, alongside concurrent increments
+    private void addTo(Window target, long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                LONGS.getAndAdd(target.cells, PAD + i, counts[i]);
+            }
+        }
+    }
+}
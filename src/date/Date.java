@@ -31,7 +31,13 @@ public class Date implements Comparable<Date>{
      * @throws IllegalArgumentException if the provided date is invalid
      */
     public Date(int month, int day, int year) {
-        if (!isValidDate(month, day, year)) {
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordCall(DateMetrics.Operation.CONSTRUCTOR);
+        }
+        if (!isValid(month, day, year)) {
+            if (DateMetrics.ENABLED) {
+                DateMetrics.recordException(DateMetrics.Operation.CONSTRUCTOR);
+            }
             throw new IllegalArgumentException("Invalid date: " + month + " " + day + ", " + year);
         }
         this.month = month;
@@ -81,6 +87,15 @@ public class Date implements Comparable<Date>{
      * @return true if the date is valid, false otherwise
      */
     public static boolean isValidDate(int month, int day, int year) {
+        boolean valid = isValid(month, day, year);
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordValidation(month, year, valid);
+        }
+        return valid;
+    }
+
+    // The check behind isValidDate for the library's own use, so that is_valid_date metrics only count explicit calls
+    static boolean isValid(int month, int day, int year) {
         return isValidYear(year) && isValidMonth(month) && isValidDay(month, day, year);
     }
 
@@ -157,7 +172,7 @@ public class Date implements Comparable<Date>{
      * @param end   the ending character(s) to append after the date
      */
     public static void printDate(int month, int day, int year, String end) {
-        if (!isValidDate(month, day, year)) {
+        if (!isValid(month, day, year)) {
             throw new IllegalArgumentException("Invalid date: " + month + " " + day + ", " + year);
         }
 
@@ -192,7 +207,7 @@ public class Date implements Comparable<Date>{
      * @return the name of the day of the week
      */
     public static String getDayOfWeek(int month, int day, int year) {
-        if(!isValidDate(month, day, year)) {
+        if(!isValid(month, day, year)) {
             throw new IllegalArgumentException("Invalid date: " + month + " " + day + ", " + year);
         }
 
@@ -234,10 +249,10 @@ public class Date implements Comparable<Date>{
      */
     public static int calculateDifference(int month_1, int day_1, int year_1, int month_2, int day_2, int year_2) {
         // Validate the input dates
-        if (!isValidDate(month_1, day_1, year_1)) {
+        if (!isValid(month_1, day_1, year_1)) {
             throw new IllegalArgumentException("Invalid date: " + month_1 + " " + day_1 + ", " + year_1);
         }
-        if (!isValidDate(month_2, day_2, year_2)) {
+        if (!isValid(month_2, day_2, year_2)) {
             throw new IllegalArgumentException("Invalid date: " + month_2 + " " + day_2 + ", " + year_2);
         }
 
@@ -277,6 +292,19 @@ public class Date implements Comparable<Date>{
         return days;
     }
 
+    /**
+     * Converts a total number of days since year 1 back to a Date.
+     * This is the inverse of {@link #toDays(int, int, int)}, so day 1 is January 1, year 1.
+     *
+     * @param days the total number of days from year 1 (1 and above)
+     * @return the Date with the given day count
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public static Date fromDays(int days) {
+        long civil = PackedDate.civil(days);
+        return new Date((int) (civil >>> 5) & 0xF, (int) civil & 0x1F, (int) (civil >>> 9));
+    }
+
     //-----------------------------------------------------------------------------------------------
     /**
      * Checks if there is at least one leap year in the given range [minYear, maxYear].
@@ -405,7 +433,13 @@ public class Date implements Comparable<Date>{
      * @throws IllegalArgumentException if the month is out of range
      */
     public void setMonth(int month) {
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordCall(DateMetrics.Operation.SET_MONTH);
+        }
         if (!isValidMonth(month)) {
+            if (DateMetrics.ENABLED) {
+                DateMetrics.recordException(DateMetrics.Operation.SET_MONTH);
+            }
             throw new IllegalArgumentException("Invalid month: " + month + ". Must be between 1 and 12.");
         }
         this.month = month;
@@ -428,7 +462,13 @@ public class Date implements Comparable<Date>{
      * @throws IllegalArgumentException if the day is out of range for the given month and year
      */
     public void setDay(int day) {
-        if (!isValidDay(day, this.month, this.year)) {
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordCall(DateMetrics.Operation.SET_DAY);
+        }
+        if (!isValidDay(this.month, day, this.year)) {
+            if (DateMetrics.ENABLED) {
+                DateMetrics.recordException(DateMetrics.Operation.SET_DAY);
+            }
             throw new IllegalArgumentException("Invalid day: " + day + ". Must be valid for month " + month + " and year " + year + ".");
         }
         this.day = day;
@@ -451,7 +491,13 @@ public class Date implements Comparable<Date>{
      * @throws IllegalArgumentException if the year is less than 1
      */
     public void setYear(int year) {
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordCall(DateMetrics.Operation.SET_YEAR);
+        }
         if (!isValidYear(year)) {
+            if (DateMetrics.ENABLED) {
+                DateMetrics.recordException(DateMetrics.Operation.SET_YEAR);
+            }
             throw new IllegalArgumentException("Invalid year: " + year + ". Must be greater than 0.");
         }
         this.year = year;
@@ -527,7 +573,13 @@ public class Date implements Comparable<Date>{
      * @throws IllegalArgumentException if the provided date is invalid
      */
     public void updateDate(int month, int day, int year) {
-        if (!isValidDate(month, day, year)) {
+        if (DateMetrics.ENABLED) {
+            DateMetrics.recordCall(DateMetrics.Operation.UPDATE_DATE);
+        }
+        if (!isValid(month, day, year)) {
+            if (DateMetrics.ENABLED) {
+                DateMetrics.recordException(DateMetrics.Operation.UPDATE_DATE);
+            }
             throw new IllegalArgumentException("Invalid date: " + month + " " + day + ", " + year);
         }
         this.month = month;
@@ -577,6 +629,18 @@ public class Date implements Comparable<Date>{
         return Math.abs(toDays() - otherDate.toDays());
     }
 
+    /**
+     * Computes the period in years, months and days between two dates, e.g. an exact age or tenure.
+     * Runs in constant time; see {@link DatePeriod#between(Date, Date)} for the month-end rules.
+     *
+     * @param start the first date (inclusive)
+     * @param end   the last date (exclusive)
+     * @return the period between the two dates, negative if end is before start
+     */
+    public static DatePeriod between(Date start, Date end) {
+        return DatePeriod.between(start, end);
+    }
+
     /**
      * Converts the date to the total number of days since year 1.
      * Uses a mathematical approach for faster calculation.
@@ -637,4 +701,35 @@ public class Date implements Comparable<Date>{
         // If both year and month are the same, compare by day
         return this.day - other.day;
     }
+
+    //-----------------------------------------------------------------------------------------------
+    /**
+     * Checks if this date is the same day as another object.
+     * Consistent with {@link #compareTo(Date)}, so dates can be used in hash-based collections.
+     *
+     * @param other the object to compare with
+     * @return true if other is a Date with the same day, month and year, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Date)) {
+            return false;
+        }
+
+        Date date = (Date) other;
+        return this.year == date.year && this.month == date.month && this.day == date.day;
+    }
+
+    /**
+     * Returns a hash code built from the day, month and year.
+     *
+     * @return the hash code of this date
+     */
+    @Override
+    public int hashCode() {
+        return (year << 9) | (month << 5) | day;
+    }
 }
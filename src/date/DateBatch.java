@@ -0,0 +1,111 @@
+package date;
+
+/**
+ * A reusable batch of packed dates (see {@link PackedDate}) handed from one pipeline stage to the next.
+ * The batch is only valid inside the call that receives it; afterwards the pipeline refills it,
+ * so consumers copy the values they want to keep.
+ */
+public final class DateBatch {
+    // Packed dates, valid up to size
+    private final int[] packed;
+    private int size;
+
+    // Rows of the input that did not hold a valid date
+    private int invalid;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity the maximum number of dates in the batch
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public DateBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity + " (must be 1 and above)");
+        }
+        this.packed = new int[capacity];
+    }
+
+    /**
+     * Returns the number of dates in the batch.
+     *
+     * @return the number of dates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of dates in the batch.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return packed.length;
+    }
+
+    /**
+     * Returns the number of input rows that were rejected while the batch was filled.
+     *
+     * @return the number of invalid rows
+     */
+    public int invalid() {
+        return invalid;
+    }
+
+    /**
+     * Returns the packed date at the given index.
+     *
+     * @param index the index (0 to size() - 1)
+     * @return the packed date
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid index: " + index + " (must be 0-" + (size - 1) + ")");
+        }
+        return packed[index];
+    }
+
+    /**
+     * Returns the backing array. Only the first size() values belong to the batch.
+     *
+     * @return the packed dates
+     */
+    public int[] packed() {
+        return packed;
+    }
+
+    /**
+     * Checks if the batch is full.
+     *
+     * @return true if no more dates fit, false otherwise
+     */
+    public boolean isFull() {
+        return size == packed.length;
+    }
+
+    /**
+     * Appends a packed date. The caller makes sure the batch is not full.
+     *
+     * @param value the packed date
+     */
+    void add(int value) {
+        packed[size++] = value;
+    }
+
+    /**
+     * Counts a rejected input row.
+     */
+    void addInvalid() {
+        invalid++;
+    }
+
+    /**
+     * Empties the batch so it can be filled again.
+     */
+    void clear() {
+        size = 0;
+        invalid = 0;
+    }
+}
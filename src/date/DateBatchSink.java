@@ -0,0 +1,16 @@
+package date;
+
+/**
+ * The last stage of an ingestion pipeline, which receives batches of packed dates.
+ * Batches are delivered one at a time from a single thread.
+ */
+@FunctionalInterface
+public interface DateBatchSink {
+    /**
+     * Consumes a batch. The batch is reused once this method returns.
+     *
+     * @param batch the batch of packed dates
+     * @throws Exception if the batch cannot be consumed, which stops the pipeline
+     */
+    void accept(DateBatch batch) throws Exception;
+}
@@ -0,0 +1,1058 @@
+package date;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed bitmap of dates keyed by day count (see {@link Date#toDays()}), in the style of Roaring bitmaps.
+ * Days are split into chunks of 65536 by their high 16 bits. Each chunk is stored as a sorted array
+ * while it holds at most {@link #ARRAY_LIMIT} days and as a 65536 bit bitmap once it holds more,
+ * so both sparse sets (holidays) and dense sets (availability windows) stay small.
+ * Set operations work chunk by chunk and never look at chunks that only one side has.
+ */
+public final class DateBitmap {
+    /**
+     * Largest number of days a chunk keeps in array form.
+     */
+    public static final int ARRAY_LIMIT = 4096;
+
+    // Marks the start of the binary format ("DBMP")
+    private static final int MAGIC = 0x44424D50;
+
+    // Container types in the binary format
+    private static final byte ARRAY_TYPE = 0;
+    private static final byte BITMAP_TYPE = 1;
+
+    // Number of 64 bit words in a bitmap container
+    private static final int WORDS = 1024;
+
+    // High 16 bits of the days of every chunk, sorted, and the matching containers
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int count;
+
+    /**
+     * Creates an empty bitmap.
+     */
+    public DateBitmap() {
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       STATIC METHODS                                          |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Creates a bitmap holding the given day counts.
+     *
+     * @param days the day counts (1 and above)
+     * @return the new bitmap
+     * @throws IllegalArgumentException if a day count is less than 1
+     */
+    public static DateBitmap of(int... days) {
+        DateBitmap bitmap = new DateBitmap();
+        for (int value : days) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SINGLE DAYS                                             |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Adds a day count to the bitmap.
+     *
+     * @param days the day count (1 and above)
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public void add(int days) {
+        checkDays(days);
+        int index = containerIndex(high(days));
+        if (index < 0) {
+            index = insertContainer(-index - 1, high(days), new ArrayContainer());
+        }
+        containers[index] = containers[index].add(low(days));
+    }
+
+    /**
+     * Adds a date to the bitmap.
+     *
+     * @param date the date to add
+     */
+    public void add(Date date) {
+        add(date.toDays());
+    }
+
+    /**
+     * Removes a day count from the bitmap.
+     *
+     * @param days the day count
+     */
+    public void remove(int days) {
+        if (days < 1) {
+            return;
+        }
+        int index = containerIndex(high(days));
+        if (index >= 0) {
+            containers[index] = containers[index].remove(low(days));
+            if (containers[index].cardinality() == 0) {
+                removeContainer(index);
+            }
+        }
+    }
+
+    /**
+     * Removes a date from the bitmap.
+     *
+     * @param date the date to remove
+     */
+    public void remove(Date date) {
+        remove(date.toDays());
+    }
+
+    /**
+     * Checks if the bitmap holds the given day count.
+     *
+     * @param days the day count
+     * @return true if the day is in the bitmap, false otherwise
+     */
+    public boolean contains(int days) {
+        if (days < 1) {
+            return false;
+        }
+        int index = containerIndex(high(days));
+        return index >= 0 && containers[index].contains(low(days));
+    }
+
+    /**
+     * Checks if the bitmap holds the given date.
+     *
+     * @param date the date to look up
+     * @return true if the date is in the bitmap, false otherwise
+     */
+    public boolean contains(Date date) {
+        return contains(date.toDays());
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       RANGES                                                  |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Adds every day count in the range [fromDays, toDays].
+     *
+     * @param fromDays the first day count (inclusive, 1 and above)
+     * @param toDays   the last day count (inclusive)
+     * @throws IllegalArgumentException if fromDays is less than 1 or greater than toDays
+     */
+    public void addRange(int fromDays, int toDays) {
+        checkRange(fromDays, toDays);
+        for (int high = high(fromDays); high <= high(toDays); high++) {
+            int start = (high == high(fromDays)) ? low(fromDays) : 0;
+            int end = (high == high(toDays)) ? low(toDays) + 1 : 1 << 16;
+
+            int index = containerIndex(high);
+            if (index < 0) {
+                index = insertContainer(-index - 1, high, new ArrayContainer());
+            }
+            containers[index] = containers[index].addRange(start, end);
+        }
+    }
+
+    /**
+     * Adds every date from one date to another, both included.
+     *
+     * @param from the first date
+     * @param to   the last date
+     * @throws IllegalArgumentException if from is after to
+     */
+    public void addRange(Date from, Date to) {
+        addRange(from.toDays(), to.toDays());
+    }
+
+    /**
+     * Removes every day count in the range [fromDays, toDays].
+     *
+     * @param fromDays the first day count (inclusive, 1 and above)
+     * @param toDays   the last day count (inclusive)
+     * @throws IllegalArgumentException if fromDays is less than 1 or greater than toDays
+     */
+    public void removeRange(int fromDays, int toDays) {
+        checkRange(fromDays, toDays);
+        for (int high = high(fromDays); high <= high(toDays); high++) {
+            int index = containerIndex(high);
+            if (index < 0) {
+                continue;
+            }
+
+            int start = (high == high(fromDays)) ? low(fromDays) : 0;
+            int end = (high == high(toDays)) ? low(toDays) + 1 : 1 << 16;
+            containers[index] = containers[index].removeRange(start, end);
+            if (containers[index].cardinality() == 0) {
+                removeContainer(index);
+            }
+        }
+    }
+
+    /**
+     * Removes every date from one date to another, both included.
+     *
+     * @param from the first date
+     * @param to   the last date
+     * @throws IllegalArgumentException if from is after to
+     */
+    public void removeRange(Date from, Date to) {
+        removeRange(from.toDays(), to.toDays());
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SET OPERATIONS                                          |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the days that are in both bitmaps. Neither bitmap is changed.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the intersection
+     */
+    public DateBitmap and(DateBitmap other) {
+        DateBitmap result = new DateBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the days that are in either bitmap. Neither bitmap is changed.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the union
+     */
+    public DateBitmap or(DateBitmap other) {
+        DateBitmap result = new DateBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count || j < other.count) {
+            if (j == other.count || (i < count && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == count || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the days that are in this bitmap but not in the other one. Neither bitmap is changed.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the difference
+     */
+    public DateBitmap andNot(DateBitmap other) {
+        DateBitmap result = new DateBitmap();
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            while (j < other.count && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.count && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the days that are in exactly one of the bitmaps. Neither bitmap is changed.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap with the symmetric difference
+     */
+    public DateBitmap xor(DateBitmap other) {
+        DateBitmap result = new DateBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count || j < other.count) {
+            if (j == other.count || (i < count && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == count || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].xor(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the bitmaps have at least one day in common, without building the intersection.
+     *
+     * @param other the other bitmap
+     * @return true if the bitmaps overlap, false otherwise
+     */
+    public boolean intersects(DateBitmap other) {
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (containers[i].intersects(other.containers[j])) {
+                    return true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       QUERIES                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the number of days in the bitmap.
+     *
+     * @return the cardinality of the bitmap
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < count; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks if the bitmap is empty.
+     *
+     * @return true if the bitmap holds no days, false otherwise
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns an iterator over the day counts in ascending order.
+     *
+     * @return the iterator
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index = 0;
+            private int next = (count == 0) ? -1 : containers[0].nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+
+                int result = (keys[index] << 16) | next;
+                next = (next == 0xFFFF) ? -1 : containers[index].nextSetBit(next + 1);
+                if (next < 0 && ++index < count) {
+                    next = containers[index].nextSetBit(0);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Passes every day count to the consumer in ascending order.
+     *
+     * @param consumer the consumer of the day counts
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < count; i++) {
+            int base = keys[i] << 16;
+            for (int low = containers[i].nextSetBit(0); low >= 0; low = (low == 0xFFFF) ? -1 : containers[i].nextSetBit(low + 1)) {
+                consumer.accept(base | low);
+            }
+        }
+    }
+
+    /**
+     * Returns the day counts in ascending order.
+     *
+     * @return a new sorted array with the day counts
+     * @throws IllegalStateException if the bitmap holds more days than fit in an array
+     */
+    public int[] toArray() {
+        long cardinality = cardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many days for an array: " + cardinality);
+        }
+
+        int[] result = new int[(int) cardinality];
+        int[] position = { 0 };
+        forEach(value -> result[position[0]++] = value);
+        return result;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SERIALIZATION                                           |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Writes the bitmap in its binary format: a header followed by every chunk,
+     * stored as a sorted array of 16 bit values or as 1024 words of 64 bits. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        stream.writeInt(MAGIC);
+        stream.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            stream.writeChar(keys[i]);
+            containers[i].writeTo(stream);
+        }
+        stream.flush();
+    }
+
+    /**
+     * Reads a bitmap written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the bitmap
+     * @throws IOException if reading fails or the data is not a date bitmap
+     */
+    public static DateBitmap readFrom(InputStream in) throws IOException {
+        DataInputStream stream = new DataInputStream(in);
+        if (stream.readInt() != MAGIC) {
+            throw new IOException("Not a date bitmap");
+        }
+
+        int containerCount = stream.readInt();
+        if (containerCount < 0 || containerCount > 1 << 16) {
+            throw new IOException("Corrupted date bitmap: " + containerCount + " chunks");
+        }
+
+        DateBitmap bitmap = new DateBitmap();
+        int previousKey = -1;
+        for (int i = 0; i < containerCount; i++) {
+            char key = stream.readChar();
+            if (key <= previousKey) {
+                throw new IOException("Corrupted date bitmap: chunks out of order");
+            }
+            previousKey = key;
+
+            byte type = stream.readByte();
+            int cardinality = stream.readInt();
+            Container container;
+            if (type == ARRAY_TYPE && cardinality >= 0 && cardinality <= ARRAY_LIMIT) {
+                // Lookups binary search the values, so they must be strictly increasing
+                char[] values = new char[cardinality];
+                for (int k = 0; k < cardinality; k++) {
+                    values[k] = stream.readChar();
+                    if (k > 0 && values[k] <= values[k - 1]) {
+                        throw new IOException("Corrupted date bitmap: chunk " + (int) key + " values out of order at " + k);
+                    }
+                }
+                if (key == 0 && cardinality > 0 && values[0] == 0) {
+                    throw new IOException("Corrupted date bitmap: day 0");
+                }
+                container = new ArrayContainer(values, cardinality);
+            } else if (type == BITMAP_TYPE) {
+                long[] words = new long[WORDS];
+                for (int k = 0; k < WORDS; k++) {
+                    words[k] = stream.readLong();
+                }
+                BitmapContainer bits = new BitmapContainer(words);
+                if (bits.cardinality() != cardinality) {
+                    throw new IOException("Corrupted date bitmap: chunk " + (int) key + " has " + bits.cardinality()
+                            + " days (header says " + cardinality + ")");
+                }
+                if (key == 0 && (words[0] & 1) != 0) {
+                    throw new IOException("Corrupted date bitmap: day 0");
+                }
+                // A sparse bitmap chunk is stored as an array, as the other operations would leave it
+                container = bits.shrink();
+            } else {
+                throw new IOException("Corrupted date bitmap: chunk type " + type + ", cardinality " + cardinality);
+            }
+            bitmap.appendIfNotEmpty(key, container);
+        }
+        return bitmap;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    private static int high(int days) {
+        return days >>> 16;
+    }
+
+    private static int low(int days) {
+        return days & 0xFFFF;
+    }
+
+    private static void checkDays(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Invalid day count: " + days + " (must be 1 and above)");
+        }
+    }
+
+    private static void checkRange(int fromDays, int toDays) {
+        checkDays(fromDays);
+        if (fromDays > toDays) {
+            throw new IllegalArgumentException("Invalid range: fromDays(" + fromDays + ") must be less or equal toDays(" + toDays + ").");
+        }
+    }
+
+    // Returns the index of the chunk, or -(insertion point) - 1 if there is none
+    private int containerIndex(int high) {
+        return Arrays.binarySearch(keys, 0, count, (char) high);
+    }
+
+    private int insertContainer(int index, int high, Container container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            containers = Arrays.copyOf(containers, count * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        System.arraycopy(containers, index, containers, index + 1, count - index);
+        keys[index] = (char) high;
+        containers[index] = container;
+        count++;
+        return index;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, count - index - 1);
+        containers[--count] = null;
+    }
+
+    // Appends a chunk with a key greater than all existing ones, used while building results
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality() > 0) {
+            insertContainer(count, key, container);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       CONTAINERS                                              |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * The days of one chunk, as 16 bit values. Mutating methods return the container
+     * that now holds the values, which may be a new one of the other type.
+     * Binary operations never change their inputs.
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(int low);
+
+        abstract Container add(int low);
+
+        abstract Container remove(int low);
+
+        // Adds or removes the values in [start, end)
+        abstract Container addRange(int start, int end);
+
+        abstract Container removeRange(int start, int end);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container xor(Container other);
+
+        abstract boolean intersects(Container other);
+
+        // Returns the smallest value at or above from, or -1 if there is none
+        abstract int nextSetBit(int from);
+
+        abstract Container copy();
+
+        // Returns the values as bitmap words, callers must not change the result
+        abstract long[] words();
+
+        abstract void writeTo(DataOutputStream stream) throws IOException;
+    }
+
+    /**
+     * A sparse chunk: a sorted array of at most ARRAY_LIMIT values.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(low);
+            }
+
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container addRange(int start, int end) {
+            int first = lowerBound(start);
+            int last = lowerBound(end);
+            int newCardinality = cardinality - (last - first) + (end - start);
+            if (newCardinality > ARRAY_LIMIT) {
+                return toBitmap().addRange(start, end);
+            }
+
+            char[] result = new char[newCardinality];
+            System.arraycopy(values, 0, result, 0, first);
+            for (int value = start; value < end; value++) {
+                result[first + value - start] = (char) value;
+            }
+            System.arraycopy(values, last, result, first + end - start, cardinality - last);
+            values = result;
+            cardinality = newCardinality;
+            return this;
+        }
+
+        @Override
+        Container removeRange(int start, int end) {
+            int first = lowerBound(start);
+            int last = lowerBound(end);
+            System.arraycopy(values, last, values, first, cardinality - last);
+            cardinality -= last - first;
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int size = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[size++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[size++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, size);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof ArrayContainer && cardinality + other.cardinality() <= ARRAY_LIMIT) {
+                return merge((ArrayContainer) other, true);
+            }
+            return BitmapContainer.or(words(), other.words());
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[size++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, size);
+        }
+
+        @Override
+        Container xor(Container other) {
+            if (other instanceof ArrayContainer && cardinality + other.cardinality() <= ARRAY_LIMIT) {
+                return merge((ArrayContainer) other, false);
+            }
+            return BitmapContainer.xor(words(), other.words());
+        }
+
+        @Override
+        boolean intersects(Container other) {
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int index = lowerBound(from);
+            return (index < cardinality) ? values[index] : -1;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        void writeTo(DataOutputStream stream) throws IOException {
+            stream.writeByte(ARRAY_TYPE);
+            stream.writeInt(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                stream.writeChar(values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            return new BitmapContainer(words());
+        }
+
+        // Returns the index of the first value at or above low
+        private int lowerBound(int low) {
+            if (low > 0xFFFF) {
+                return cardinality;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            return (index >= 0) ? index : -index - 1;
+        }
+
+        // Union (keepCommon) or symmetric difference of two sorted arrays
+        private ArrayContainer merge(ArrayContainer other, boolean keepCommon) {
+            char[] result = new char[cardinality + other.cardinality];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    result[size++] = values[i++];
+                } else if (values[i] > other.values[j]) {
+                    result[size++] = other.values[j++];
+                } else {
+                    if (keepCommon) {
+                        result[size++] = values[i];
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                result[size++] = values[i++];
+            }
+            while (j < other.cardinality) {
+                result[size++] = other.values[j++];
+            }
+            return new ArrayContainer(result, size);
+        }
+    }
+
+    /**
+     * A dense chunk: one bit for each of the 65536 values.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words) {
+            this.words = words;
+            this.cardinality = count(words);
+        }
+
+        static Container or(long[] first, long[] second) {
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = first[i] | second[i];
+            }
+            return new BitmapContainer(result).shrink();
+        }
+
+        static Container xor(long[] first, long[] second) {
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = first[i] ^ second[i];
+            }
+            return new BitmapContainer(result).shrink();
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(int low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (before != words[low >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (before != words[low >>> 6]) {
+                cardinality--;
+            }
+            return shrink();
+        }
+
+        @Override
+        Container addRange(int start, int end) {
+            applyRange(start, end, true);
+            cardinality = count(words);
+            return this;
+        }
+
+        @Override
+        Container removeRange(int start, int end) {
+            applyRange(start, end, false);
+            cardinality = count(words);
+            return shrink();
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            long[] otherWords = other.words();
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            return new BitmapContainer(result).shrink();
+        }
+
+        @Override
+        Container or(Container other) {
+            return or(words, other.words());
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = Arrays.copyOf(words, WORDS);
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+                }
+            } else {
+                long[] otherWords = other.words();
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            return new BitmapContainer(result).shrink();
+        }
+
+        @Override
+        Container xor(Container other) {
+            return xor(words, other.words());
+        }
+
+        @Override
+        boolean intersects(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.intersects(this);
+            }
+
+            long[] otherWords = other.words();
+            for (int i = 0; i < WORDS; i++) {
+                if ((words[i] & otherWords[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int index = from >>> 6;
+            if (index >= WORDS) {
+                return -1;
+            }
+
+            long word = words[index] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (index << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++index == WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(Arrays.copyOf(words, WORDS));
+        }
+
+        @Override
+        long[] words() {
+            return words;
+        }
+
+        @Override
+        void writeTo(DataOutputStream stream) throws IOException {
+            stream.writeByte(BITMAP_TYPE);
+            stream.writeInt(cardinality);
+            for (long word : words) {
+                stream.writeLong(word);
+            }
+        }
+
+        // Switches back to an array once the chunk becomes sparse
+        private Container shrink() {
+            if (cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+
+            char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, size);
+        }
+
+        // Sets or clears the bits in [start, end)
+        private void applyRange(int start, int end, boolean set) {
+            if (start >= end) {
+                return;
+            }
+
+            int firstWord = start >>> 6;
+            int lastWord = (end - 1) >>> 6;
+            long firstMask = -1L << start;
+            long lastMask = -1L >>> -end;
+
+            for (int i = firstWord; i <= lastWord; i++) {
+                long mask = -1L;
+                if (i == firstWord) {
+                    mask &= firstMask;
+                }
+                if (i == lastWord) {
+                    mask &= lastMask;
+                }
+                words[i] = set ? (words[i] | mask) : (words[i] & ~mask);
+            }
+        }
+
+        private static int count(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            return cardinality;
+        }
+    }
+}
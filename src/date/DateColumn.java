@@ -0,0 +1,32 @@
+package date;
+
+/**
+ * A column of packed dates (see {@link PackedDate}) addressed by a long row index,
+ * so that a single column can hold more than Integer.MAX_VALUE rows.
+ */
+public interface DateColumn {
+    /**
+     * Returns the number of rows in the column.
+     *
+     * @return the number of rows
+     */
+    long size();
+
+    /**
+     * Returns the packed date at the given row.
+     *
+     * @param index the row index (0 to size() - 1)
+     * @return the packed date
+     */
+    int get(long index);
+
+    /**
+     * Returns the date at the given row as a Date object.
+     *
+     * @param index the row index (0 to size() - 1)
+     * @return the unpacked date
+     */
+    default Date getDate(long index) {
+        return PackedDate.toDate(get(index));
+    }
+}
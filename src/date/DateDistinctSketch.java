@@ -0,0 +1,189 @@
+package date;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch that estimates how many distinct days a stream contains.
+ * It keeps 2^precision one-byte registers whatever the length of the stream; the relative
+ * standard error of the estimate is about 1.04 / sqrt(2^precision), e.g. 1.6% at precision 12 (4 KB).
+ */
+public final class DateDistinctSketch implements DateSketch<DateDistinctSketch> {
+    /**
+     * The smallest allowed precision.
+     */
+    public static final int MIN_PRECISION = 4;
+
+    /**
+     * The largest allowed precision.
+     */
+    public static final int MAX_PRECISION = 18;
+
+    // Header of the binary format, "DHLL"
+    private static final int MAGIC = 0x44484C4C;
+
+    private final int precision;
+
+    // Per register: the largest rank (position of the first 1 bit) seen among the hashes routed to it
+    private final byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param precision the number of index bits (MIN_PRECISION to MAX_PRECISION)
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public DateDistinctSketch(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision: " + precision
+                    + " (must be " + MIN_PRECISION + "-" + MAX_PRECISION + ")");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       INSTANCE METHODS                                        |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the precision of the sketch.
+     *
+     * @return the number of index bits
+     */
+    public int precision() {
+        return precision;
+    }
+
+    @Override
+    public void add(int days) {
+        DateHashing.checkKey(days);
+        long hash = DateHashing.mix64(days);
+        int index = (int) (hash >>> (64 - precision));
+
+        // A guard bit keeps the rank within 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Estimates the number of distinct days added so far.
+     *
+     * @return the estimated number of distinct days
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52); // 2^-register
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Small cardinalities: linear counting over the empty registers is more accurate
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    @Override
+    public void merge(DateDistinctSketch other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Precisions differ: " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    @Override
+    public DateDistinctSketch emptyCopy() {
+        return new DateDistinctSketch(precision);
+    }
+
+    /**
+     * Empties the sketch.
+     */
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SERIALIZATION                                           |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Writes the sketch in its binary format: a header, the precision and every register.
+     * The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        stream.writeInt(MAGIC);
+        stream.writeByte(precision);
+        stream.write(registers);
+        stream.flush();
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the sketch
+     * @throws IOException if reading fails or the data is not a distinct-count sketch
+     */
+    public static DateDistinctSketch readFrom(InputStream in) throws IOException {
+        DataInputStream stream = new DataInputStream(in);
+        if (stream.readInt() != MAGIC) {
+            throw new IOException("Not a distinct-count sketch");
+        }
+
+        int precision = stream.readByte();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Corrupted distinct-count sketch: precision " + precision);
+        }
+
+        DateDistinctSketch sketch = new DateDistinctSketch(precision);
+        stream.readFully(sketch.registers);
+        for (byte register : sketch.registers) {
+            if (register < 0 || register > 64 - precision + 1) {
+                throw new IOException("Corrupted distinct-count sketch: register " + register);
+            }
+        }
+        return sketch;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Bias correction constant of HyperLogLog for m registers
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
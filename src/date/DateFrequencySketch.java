@@ -0,0 +1,401 @@
+package date;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * A Count-Min sketch that estimates how often each day occurs in a stream, together with
+ * the k days that occur most often (heavy hitters).
+ *
+ * The counts live in depth rows of width counters; a day increments one counter per row
+ * and its estimate is the smallest of them. An estimate is never below the true count and,
+ * with probability 1 - e^-depth, exceeds it by at most e / width times the total count.
+ * The heavy hitters are kept in a min-heap of k candidates ordered by their estimates.
+ * Memory is fixed by width, depth and k.
+ */
+public final class DateFrequencySketch implements DateSketch<DateFrequencySketch> {
+    // Header of the binary format, "DCMS"
+    private static final int MAGIC = 0x44434D53;
+
+    // Largest number of counters
+    private static final int MAX_COUNTERS = 1 << 28;
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+
+    // depth rows of width counters, row by row
+    private final long[] counters;
+
+    // Sum of all counts added
+    private long total;
+
+    // Heavy hitter candidates: a min-heap of days by estimated count, and the heap slot + 1 of each day
+    private final int[] topDays;
+    private final long[] topCounts;
+    private int topSize;
+    private final DateIntMap topSlots;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param width the counters per row, rounded up to a power of two
+     * @param depth the number of rows (1-16)
+     * @param k     the number of heavy hitters to track (1 and above)
+     * @throws IllegalArgumentException if an argument is out of range or the sketch would be too large
+     */
+    public DateFrequencySketch(int width, int depth, int k) {
+        if (width < 1 || width > MAX_COUNTERS) {
+            throw new IllegalArgumentException("Invalid width: " + width + " (must be 1-" + MAX_COUNTERS + ")");
+        }
+        if (depth < 1 || depth > 16) {
+            throw new IllegalArgumentException("Invalid depth: " + depth + " (must be 1-16)");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("Invalid k: " + k + " (must be 1 and above)");
+        }
+
+        int rowSize = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        if ((long) rowSize * depth > MAX_COUNTERS) {
+            throw new IllegalArgumentException("Sketch too large: " + rowSize + " x " + depth
+                    + " (must have at most " + MAX_COUNTERS + " counters)");
+        }
+
+        this.width = rowSize;
+        this.depth = depth;
+        this.mask = rowSize - 1;
+        this.counters = new long[rowSize * depth];
+        this.topDays = new int[k];
+        this.topCounts = new long[k];
+        this.topSlots = new DateIntMap(k);
+    }
+
+    /**
+     * Creates an empty sketch for a given error bound: with probability 1 - delta,
+     * an estimate exceeds the true count by at most epsilon times the total count.
+     *
+     * @param epsilon the relative error (above 0 and below 1)
+     * @param delta   the probability of exceeding the error (above 0 and below 1)
+     * @param k       the number of heavy hitters to track (1 and above)
+     * @return the sketch
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static DateFrequencySketch withError(double epsilon, double delta, int k) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Invalid epsilon: " + epsilon + " (must be between 0 and 1)");
+        }
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Invalid delta: " + delta + " (must be between 0 and 1)");
+        }
+        int width = (int) Math.min(MAX_COUNTERS, Math.ceil(Math.E / epsilon));
+        int depth = (int) Math.min(16, Math.ceil(Math.log(1 / delta)));
+        return new DateFrequencySketch(width, Math.max(1, depth), k);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       INSTANCE METHODS                                        |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the number of counters per row.
+     *
+     * @return the width
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the depth
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of heavy hitters tracked.
+     *
+     * @return k
+     */
+    public int k() {
+        return topDays.length;
+    }
+
+    /**
+     * Returns the sum of all counts added.
+     *
+     * @return the total count
+     */
+    public long totalCount() {
+        return total;
+    }
+
+    @Override
+    public void add(int days) {
+        add(days, 1);
+    }
+
+    /**
+     * Adds several occurrences of a day.
+     *
+     * @param days  the day count (1 and above)
+     * @param count the number of occurrences (0 and above)
+     * @throws IllegalArgumentException if days is less than 1 or count is negative
+     */
+    public void add(int days, long count) {
+        DateHashing.checkKey(days);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count: " + count + " (must be 0 and above)");
+        }
+
+        long hash = DateHashing.mix64(days);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int slot = row * width + ((h1 + row * h2) & mask);
+            counters[slot] += count;
+            estimate = Math.min(estimate, counters[slot]);
+        }
+        total += count;
+        offer(days, estimate);
+    }
+
+    /**
+     * Adds several occurrences of a date.
+     *
+     * @param date  the date
+     * @param count the number of occurrences (0 and above)
+     * @throws IllegalArgumentException if count is negative
+     */
+    public void add(Date date, long count) {
+        add(date.toDays(), count);
+    }
+
+    /**
+     * Estimates how often a day occurred. The estimate is never below the true count.
+     *
+     * @param days the day count
+     * @return the estimated count
+     */
+    public long estimate(int days) {
+        long hash = DateHashing.mix64(days);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates how often a date occurred.
+     *
+     * @param date the date
+     * @return the estimated count
+     */
+    public long estimate(Date date) {
+        return estimate(date.toDays());
+    }
+
+    /**
+     * Returns the heavy hitters: up to k days with the highest estimated counts, most frequent first.
+     *
+     * @return the day counts of the heavy hitters
+     */
+    public int[] topDays() {
+        return IntStream.range(0, topSize)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(slot -> topCounts[slot]).reversed()
+                        .thenComparingInt(slot -> topDays[slot]))
+                .mapToInt(slot -> topDays[slot])
+                .toArray();
+    }
+
+    @Override
+    public void merge(DateFrequencySketch other) {
+        if (other.width != width || other.depth != depth || other.topDays.length != topDays.length) {
+            throw new IllegalArgumentException("Sketch sizes differ: " + width + " x " + depth + " top " + topDays.length
+                    + " and " + other.width + " x " + other.depth + " top " + other.topDays.length);
+        }
+
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+
+        // Candidates of either side, re-ranked by their estimates in the merged counters
+        int otherSize = Math.min(other.topSize, other.topDays.length);
+        int[] candidates = Arrays.copyOf(topDays, topSize + otherSize);
+        System.arraycopy(other.topDays, 0, candidates, topSize, otherSize);
+        clearTop();
+        for (int days : candidates) {
+            if (days > 0 && !topSlots.containsKey(days)) {
+                offer(days, estimate(days));
+            }
+        }
+    }
+
+    @Override
+    public DateFrequencySketch emptyCopy() {
+        return new DateFrequencySketch(width, depth, topDays.length);
+    }
+
+    /**
+     * Empties the sketch.
+     */
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+        clearTop();
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       SERIALIZATION                                           |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Writes the sketch in its binary format: a header, the sizes, the total, every counter
+     * and the heavy hitter candidates. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        stream.writeInt(MAGIC);
+        stream.writeInt(width);
+        stream.writeInt(depth);
+        stream.writeInt(topDays.length);
+        stream.writeLong(total);
+        for (long counter : counters) {
+            stream.writeLong(counter);
+        }
+        stream.writeInt(topSize);
+        for (int i = 0; i < topSize; i++) {
+            stream.writeInt(topDays[i]);
+        }
+        stream.flush();
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the sketch
+     * @throws IOException if reading fails or the data is not a frequency sketch
+     */
+    public static DateFrequencySketch readFrom(InputStream in) throws IOException {
+        DataInputStream stream = new DataInputStream(in);
+        if (stream.readInt() != MAGIC) {
+            throw new IOException("Not a frequency sketch");
+        }
+
+        int width = stream.readInt();
+        int depth = stream.readInt();
+        int k = stream.readInt();
+        if (width < 1 || Integer.bitCount(width) != 1 || depth < 1 || depth > 16 || k < 1
+                || (long) width * depth > MAX_COUNTERS) {
+            throw new IOException("Corrupted frequency sketch: " + width + " x " + depth + " top " + k);
+        }
+
+        DateFrequencySketch sketch = new DateFrequencySketch(width, depth, k);
+        sketch.total = stream.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = stream.readLong();
+        }
+
+        int topSize = stream.readInt();
+        if (topSize < 0 || topSize > k) {
+            throw new IOException("Corrupted frequency sketch: " + topSize + " heavy hitters");
+        }
+        for (int i = 0; i < topSize; i++) {
+            int days = stream.readInt();
+            if (days < 1 || sketch.topSlots.containsKey(days)) {
+                throw new IOException("Corrupted frequency sketch: heavy hitter " + days);
+            }
+            sketch.offer(days, sketch.estimate(days));
+        }
+        return sketch;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HEAVY HITTERS                                           |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Updates the candidates with a new estimate for a day
+    private void offer(int days, long estimate) {
+        int slot = topSlots.getOrDefault(days, 0) - 1;
+        if (slot >= 0) {
+            // Estimates only grow, so the day can only move down the min-heap
+            topCounts[slot] = estimate;
+            siftDown(slot);
+        } else if (topSize < topDays.length) {
+            topDays[topSize] = days;
+            topCounts[topSize] = estimate;
+            topSlots.put(days, topSize + 1);
+            siftUp(topSize++);
+        } else if (estimate > topCounts[0]) {
+            // Replace the least frequent candidate
+            topSlots.remove(topDays[0]);
+            topDays[0] = days;
+            topCounts[0] = estimate;
+            topSlots.put(days, 1);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (topCounts[parent] <= topCounts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= topSize) {
+                return;
+            }
+            if (child + 1 < topSize && topCounts[child + 1] < topCounts[child]) {
+                child++;
+            }
+            if (topCounts[slot] <= topCounts[child]) {
+                return;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int days = topDays[i];
+        long count = topCounts[i];
+        topDays[i] = topDays[j];
+        topCounts[i] = topCounts[j];
+        topDays[j] = days;
+        topCounts[j] = count;
+        topSlots.put(topDays[i], i + 1);
+        topSlots.put(topDays[j], j + 1);
+    }
+
+    private void clearTop() {
+        topSize = 0;
+        topSlots.clear();
+    }
+}
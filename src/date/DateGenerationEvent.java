@@ -0,0 +1,26 @@
+package date;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for one call of {@link DateGenerator#generateRandomDates(int)}.
+ * Only emitted when {@link DateMetrics#ENABLED} is set and a recording has the event enabled.
+ */
+@Name("date.DateGeneration")
+@Label("Date Generation")
+@Category("DateProject")
+@Description("Generation of a batch of random dates")
+final class DateGenerationEvent extends Event {
+    @Label("Count")
+    int count;
+
+    @Label("Min Year")
+    int minYear;
+
+    @Label("Max Year")
+    int maxYear;
+}
@@ -200,6 +200,32 @@ public class DateGenerator {
      * @return a list of n random Date objects
      */
     public ArrayList<Date> generateRandomDates(int n) {
+        if (DateMetrics.ENABLED) {
+            return generateRandomDatesInstrumented(n);
+        }
+        return generate(n);
+    }
+
+    // Times the batch and emits a DateGenerationEvent, only used when metrics are enabled
+    private ArrayList<Date> generateRandomDatesInstrumented(int n) {
+        DateGenerationEvent event = new DateGenerationEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        ArrayList<Date> dates = generate(n);
+
+        DateMetrics.recordBatch(DateMetrics.Operation.GENERATE_RANDOM_DATES, dates.size(), System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.count = dates.size();
+            event.minYear = minYear;
+            event.maxYear = maxYear;
+            event.commit();
+        }
+        return dates;
+    }
+
+    private ArrayList<Date> generate(int n) {
         ArrayList<Date> dates = new ArrayList<>();
 
         for (int i = 0; i < n; i++) {
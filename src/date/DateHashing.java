@@ -0,0 +1,75 @@
+package date;
+
+/**
+ * Shared helpers for the open-addressing date collections.
+ * Keys are day counts (see {@link Date#toDays()}), which are always 1 or greater,
+ * so 0 marks an empty slot.
+ */
+final class DateHashing {
+    // Empty slot marker
+    static final int EMPTY = 0;
+
+    // Tables are grown once they are more than this full
+    static final float LOAD_FACTOR = 0.5f;
+
+    // Smallest table size
+    static final int MIN_CAPACITY = 16;
+
+    // Largest power of two table size
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private DateHashing() {
+    }
+
+    /**
+     * Scrambles a day count so that neighbouring days spread over the table.
+     *
+     * @param key the day count
+     * @return the mixed hash
+     */
+    static int mix(int key) {
+        int hash = key * 0x9E3779B9; // Fibonacci hashing
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Scrambles a day count into 64 well-mixed bits, for sketches that take several hashes
+     * or count leading zeros (SplitMix64 finalizer).
+     *
+     * @param key the day count
+     * @return the 64 bit hash
+     */
+    static long mix64(int key) {
+        long hash = key + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Returns the power of two table size that holds the expected number of keys
+     * without exceeding the load factor.
+     *
+     * @param expected the expected number of keys
+     * @return the table size
+     */
+    static int tableSize(int expected) {
+        long needed = (long) Math.ceil(expected / (double) LOAD_FACTOR);
+        if (needed > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) Math.max(1, needed - 1)) << 1);
+    }
+
+    /**
+     * Checks that a key is a valid day count.
+     *
+     * @param key the day count
+     * @throws IllegalArgumentException if the key is less than 1
+     */
+    static void checkKey(int key) {
+        if (key < 1) {
+            throw new IllegalArgumentException("Invalid day count: " + key + " (must be 1 and above)");
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package date;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A map from dates to long values, stored as day counts (see {@link Date#toDays()})
+ * in an open-addressing hash table with linear probing. Keys are kept in a plain int array
+ * and values in a plain long array, so there is no boxing and no object per entry.
+ */
+public final class DateLongMap {
+    /**
+     * Receives the entries of the map in {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Accepts one entry.
+         *
+         * @param days  the day count of the key
+         * @param value the value
+         */
+        void accept(int days, long value);
+    }
+
+    // Hash table, EMPTY marks a free slot
+    private int[] keys;
+    private long[] values;
+
+    // Number of keys in the table
+    private int size;
+
+    // Size at which the table is grown
+    private int threshold;
+
+    /**
+     * Creates an empty map.
+     */
+    public DateLongMap() {
+        this(DateHashing.MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that holds the expected number of dates without growing.
+     *
+     * @param expectedSize the expected number of dates
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public DateLongMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize + " (must be 0 and above)");
+        }
+        allocate(DateHashing.tableSize(expectedSize));
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       INSTANCE METHODS                                        |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the number of dates in the map.
+     *
+     * @return the number of dates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return true if the map holds no dates, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Associates a value with a day count.
+     *
+     * @param days  the day count (1 and above)
+     * @param value the value
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public void put(int days, long value) {
+        values[insert(days)] = value;
+    }
+
+    /**
+     * Associates a value with a date.
+     *
+     * @param date  the date
+     * @param value the value
+     */
+    public void put(Date date, long value) {
+        put(date.toDays(), value);
+    }
+
+    /**
+     * Adds a delta to the value of a day count. Missing days start at 0.
+     *
+     * @param days  the day count (1 and above)
+     * @param delta the amount to add
+     * @return the new value
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public long addTo(int days, long delta) {
+        int slot = insert(days);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Adds a delta to the value of a date. Missing dates start at 0.
+     *
+     * @param date  the date
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public long addTo(Date date, long delta) {
+        return addTo(date.toDays(), delta);
+    }
+
+    /**
+     * Counts the occurrences of the given day counts, adding one per occurrence.
+     *
+     * @param days the day counts to count
+     */
+    public void countAll(int[] days) {
+        for (int value : days) {
+            addTo(value, 1);
+        }
+    }
+
+    /**
+     * Counts the occurrences of the dates of a column, adding one per occurrence.
+     *
+     * @param column the column of packed dates
+     */
+    public void countAll(DateColumn column) {
+        for (long i = 0; i < column.size(); i++) {
+            addTo(PackedDate.toDays(column.get(i)), 1);
+        }
+    }
+
+    /**
+     * Counts the occurrences of the given dates, adding one per occurrence.
+     *
+     * @param dates the dates to count
+     */
+    public void countAll(Collection<Date> dates) {
+        for (Date date : dates) {
+            addTo(date.toDays(), 1);
+        }
+    }
+
+    /**
+     * Returns the value of a day count.
+     *
+     * @param days         the day count
+     * @param defaultValue the value to return if the day is not in the map
+     * @return the value, or defaultValue if the day is not in the map
+     */
+    public long getOrDefault(int days, long defaultValue) {
+        int slot = find(days);
+        return (slot < 0) ? defaultValue : values[slot];
+    }
+
+    /**
+     * Returns the value of a date.
+     *
+     * @param date         the date
+     * @param defaultValue the value to return if the date is not in the map
+     * @return the value, or defaultValue if the date is not in the map
+     */
+    public long getOrDefault(Date date, long defaultValue) {
+        return getOrDefault(date.toDays(), defaultValue);
+    }
+
+    /**
+     * Checks if the map holds the given day count.
+     *
+     * @param days the day count
+     * @return true if the day is in the map, false otherwise
+     */
+    public boolean containsKey(int days) {
+        return find(days) >= 0;
+    }
+
+    /**
+     * Checks if the map holds the given date.
+     *
+     * @param date the date
+     * @return true if the date is in the map, false otherwise
+     */
+    public boolean containsKey(Date date) {
+        return containsKey(date.toDays());
+    }
+
+    /**
+     * Removes a day count from the map.
+     *
+     * @param days the day count
+     * @return true if the day was in the map, false otherwise
+     */
+    public boolean remove(int days) {
+        int slot = find(days);
+        if (slot < 0) {
+            return false;
+        }
+
+        // Shift the following keys of the probe chain back so lookups do not stop at the hole
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != DateHashing.EMPTY) {
+            int home = DateHashing.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = DateHashing.EMPTY;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes a date from the map.
+     *
+     * @param date the date
+     * @return true if the date was in the map, false otherwise
+     */
+    public boolean remove(Date date) {
+        return remove(date.toDays());
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        Arrays.fill(keys, DateHashing.EMPTY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Passes every entry to the consumer in no particular order.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != DateHashing.EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the day counts in the map in no particular order.
+     *
+     * @return a new array with the day counts
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int key : keys) {
+            if (key != DateHashing.EMPTY) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    // Returns the slot of the key, or -1 if it is not in the table
+    private int find(int days) {
+        if (days < 1) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+        int slot = DateHashing.mix(days) & mask;
+        while (keys[slot] != DateHashing.EMPTY) {
+            if (keys[slot] == days) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Returns the slot of the key, adding it with value 0 if it is not in the table
+    private int insert(int days) {
+        DateHashing.checkKey(days);
+
+        int mask = keys.length - 1;
+        int slot = DateHashing.mix(days) & mask;
+        while (keys[slot] != DateHashing.EMPTY) {
+            if (keys[slot] == days) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > threshold) {
+            grow();
+            return insert(days);
+        }
+        keys[slot] = days;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        if (keys.length == DateHashing.MAX_CAPACITY) {
+            throw new IllegalStateException("DateLongMap is full: " + size + " dates");
+        }
+
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != DateHashing.EMPTY) {
+                int slot = DateHashing.mix(oldKeys[i]) & mask;
+                while (keys[slot] != DateHashing.EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        threshold = (int) (capacity * DateHashing.LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,155 @@
+package date;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters for the hot paths of the library: how often operations are called,
+ * why date validation fails, how many IllegalArgumentExceptions the constructors and setters throw,
+ * and how long bulk generation and sorting take. Bulk generation and sorting also emit
+ * JDK Flight Recorder events.
+ *
+ * Metrics are off unless the JVM is started with -Ddate.metrics=true. The flag is a static final
+ * constant, so when it is off the JIT removes every instrumented branch and the cost is zero.
+ * Counters are LongAdders, which stripe their cells across threads, so they do not contend.
+ */
+public final class DateMetrics {
+    /**
+     * Whether metrics are collected, read once from the date.metrics system property.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("date.metrics");
+
+    /**
+     * Instrumented operations.
+     */
+    public enum Operation {
+        IS_VALID_DATE, CONSTRUCTOR, SET_MONTH, SET_DAY, SET_YEAR, UPDATE_DATE, GENERATE_RANDOM_DATES, SORT
+    }
+
+    /**
+     * Reasons why a date is rejected by {@link Date#isValidDate(int, int, int)}.
+     */
+    public enum Failure {
+        INVALID_YEAR, INVALID_MONTH, INVALID_DAY
+    }
+
+    private static final LongAdder[] CALLS = adders(Operation.values().length);
+    private static final LongAdder[] EXCEPTIONS = adders(Operation.values().length);
+    private static final LongAdder[] REJECTIONS = adders(Failure.values().length);
+
+    // Bulk operations: number of rows processed and time spent
+    private static final LongAdder[] ROWS = adders(Operation.values().length);
+    private static final LongAdder[] NANOS = adders(Operation.values().length);
+
+    private DateMetrics() {
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       RECORDING                                               |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Records a call of an operation. Callers check {@link #ENABLED} first.
+     *
+     * @param operation the operation
+     */
+    static void recordCall(Operation operation) {
+        CALLS[operation.ordinal()].increment();
+    }
+
+    /**
+     * Records an IllegalArgumentException thrown by an operation. Callers check {@link #ENABLED} first.
+     *
+     * @param operation the operation
+     */
+    static void recordException(Operation operation) {
+        EXCEPTIONS[operation.ordinal()].increment();
+    }
+
+    /**
+     * Records the result of a date validation and, if it failed, the reason.
+     * Callers check {@link #ENABLED} first.
+     *
+     * @param month the month that was checked
+     * @param year  the year that was checked
+     * @param valid the result of the validation
+     */
+    static void recordValidation(int month, int year, boolean valid) {
+        CALLS[Operation.IS_VALID_DATE.ordinal()].increment();
+        if (valid) {
+            return;
+        }
+
+        // The reason is only worked out for rejected dates, off the common path
+        if (!Date.isValidYear(year)) {
+            REJECTIONS[Failure.INVALID_YEAR.ordinal()].increment();
+        } else if (!Date.isValidMonth(month)) {
+            REJECTIONS[Failure.INVALID_MONTH.ordinal()].increment();
+        } else {
+            REJECTIONS[Failure.INVALID_DAY.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Records a finished bulk operation. Callers check {@link #ENABLED} first.
+     *
+     * @param operation the operation
+     * @param rows      the number of dates processed
+     * @param nanos     the time taken in nanoseconds
+     */
+    static void recordBatch(Operation operation, long rows, long nanos) {
+        CALLS[operation.ordinal()].increment();
+        ROWS[operation.ordinal()].add(rows);
+        NANOS[operation.ordinal()].add(nanos);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       READING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the current value of every counter, keyed by names such as "is_valid_date.calls",
+     * "constructor.exceptions", "rejections.invalid_day" or "generate_random_dates.nanos".
+     * Counters that are updated while the snapshot is taken may or may not be included.
+     *
+     * @return a sorted, read-only map from counter name to value
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Operation operation : Operation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            snapshot.put(name + ".calls", CALLS[operation.ordinal()].sum());
+            snapshot.put(name + ".exceptions", EXCEPTIONS[operation.ordinal()].sum());
+            if (operation == Operation.GENERATE_RANDOM_DATES || operation == Operation.SORT) {
+                snapshot.put(name + ".rows", ROWS[operation.ordinal()].sum());
+                snapshot.put(name + ".nanos", NANOS[operation.ordinal()].sum());
+            }
+        }
+        for (Failure failure : Failure.values()) {
+            snapshot.put("rejections." + failure.name().toLowerCase(Locale.ROOT), REJECTIONS[failure.ordinal()].sum());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public static void reset() {
+        for (LongAdder[] adders : new LongAdder[][] { CALLS, EXCEPTIONS, REJECTIONS, ROWS, NANOS }) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+        }
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,156 @@
+package date;
+
+/**
+ * An amount of time in years, months and days, such as the exact age of a person or the tenure
+ * of a contract. It follows the rules of java.time.Period: whole months are counted first,
+ * and a day that does not exist in the target month (January 31 plus one month, or February 29
+ * in a common year) is moved to the last day of that month.
+ */
+public final class DatePeriod {
+    private final int years;
+    private final int months;
+    private final int days;
+
+    /**
+     * Creates a period. The parts are not normalized.
+     *
+     * @param years  the number of years
+     * @param months the number of months
+     * @param days   the number of days
+     */
+    public DatePeriod(int years, int months, int days) {
+        this.years = years;
+        this.months = months;
+        this.days = days;
+    }
+
+    //-----------------------------------------------------------------------------------------------
+    /**
+     * Computes the period from one date to another in constant time.
+     * The months are counted from start to the same day of the month, the remaining days are added on top.
+     * If end is before start, every part of the result is zero or negative.
+     *
+     * @param start the first date (inclusive)
+     * @param end   the last date (exclusive)
+     * @return the period between the two dates
+     */
+    public static DatePeriod between(Date start, Date end) {
+        long totalMonths = (end.getYear() * 12L + end.getMonth()) - (start.getYear() * 12L + start.getMonth());
+        int days = end.getDay() - start.getDay();
+
+        if (totalMonths > 0 && days < 0) {
+            // The last month is not complete. Moving start forward by the whole months lands in the month
+            // before end, on the start day or that month's last day; count the days from there to end.
+            totalMonths--;
+            int month = end.getMonth() == 1 ? 12 : end.getMonth() - 1;
+            int year = end.getMonth() == 1 ? end.getYear() - 1 : end.getYear();
+            int daysInMonth = PackedDate.daysInMonth(month, year);
+            days = daysInMonth - Math.min(start.getDay(), daysInMonth) + end.getDay();
+        } else if (totalMonths < 0 && days > 0) {
+            totalMonths++;
+            days -= end.getDaysInMonth();
+        }
+
+        return new DatePeriod((int) (totalMonths / 12), (int) (totalMonths % 12), days);
+    }
+
+    //-----------------------------------------------------------------------------------------------
+    /**
+     * Returns the number of years.
+     *
+     * @return the years
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Returns the number of months.
+     *
+     * @return the months
+     */
+    public int getMonths() {
+        return months;
+    }
+
+    /**
+     * Returns the number of days.
+     *
+     * @return the days
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Returns the years and months of the period as a number of months.
+     *
+     * @return years * 12 + months
+     */
+    public long toTotalMonths() {
+        return years * 12L + months;
+    }
+
+    /**
+     * Checks if any part of the period is negative.
+     *
+     * @return true if the period is negative, false otherwise
+     */
+    public boolean isNegative() {
+        return years < 0 || months < 0 || days < 0;
+    }
+
+    //-----------------------------------------------------------------------------------------------
+    /**
+     * Checks if this period has the same years, months and days as another object.
+     *
+     * @param other the object to compare with
+     * @return true if other is a DatePeriod with the same parts, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof DatePeriod)) {
+            return false;
+        }
+
+        DatePeriod period = (DatePeriod) other;
+        return years == period.years && months == period.months && days == period.days;
+    }
+
+    /**
+     * Returns a hash code built from the years, months and days.
+     *
+     * @return the hash code of this period
+     */
+    @Override
+    public int hashCode() {
+        return years + Integer.rotateLeft(months, 8) + Integer.rotateLeft(days, 16);
+    }
+
+    /**
+     * Returns the period in ISO-8601 form, e.g. "P1Y2M3D", or "P0D" for an empty period.
+     *
+     * @return the period as a string
+     */
+    @Override
+    public String toString() {
+        if (years == 0 && months == 0 && days == 0) {
+            return "P0D";
+        }
+
+        StringBuilder result = new StringBuilder("P");
+        if (years != 0) {
+            result.append(years).append('Y');
+        }
+        if (months != 0) {
+            result.append(months).append('M');
+        }
+        if (days != 0) {
+            result.append(days).append('D');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,334 @@
+package date;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A set of dates stored as day counts (see {@link Date#toDays()}) in an open-addressing
+ * hash table with linear probing. Keys are plain ints, so there is no boxing
+ * and no Date object per entry.
+ */
+public final class DateSet {
+    // Most new keys that bulk adds size the table for up front; input is mostly duplicates,
+    // so beyond this the table grows as distinct keys actually arrive
+    private static final int PRESIZE_LIMIT = 1 << 16;
+
+    // Hash table, EMPTY marks a free slot
+    private int[] keys;
+
+    // Number of keys in the table
+    private int size;
+
+    // Size at which the table is grown
+    private int threshold;
+
+    /**
+     * Creates an empty set.
+     */
+    public DateSet() {
+        this(DateHashing.MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set that holds the expected number of dates without growing.
+     *
+     * @param expectedSize the expected number of dates
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public DateSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize + " (must be 0 and above)");
+        }
+        allocate(DateHashing.tableSize(expectedSize));
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       STATIC METHODS                                          |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Removes duplicate dates from a list, for example the output of
+     * {@link DateGenerator#generateRandomDates(int)}. The first occurrence of every date is kept
+     * and the order is preserved.
+     *
+     * @param dates the dates to deduplicate
+     * @return a new list without duplicates
+     */
+    public static ArrayList<Date> distinct(List<Date> dates) {
+        DateSet seen = new DateSet(Math.min(dates.size(), PRESIZE_LIMIT));
+        ArrayList<Date> result = new ArrayList<>();
+        for (Date date : dates) {
+            if (seen.add(date.toDays())) {
+                result.add(date);
+            }
+        }
+        return result;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       INSTANCE METHODS                                        |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the number of dates in the set.
+     *
+     * @return the number of dates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return true if the set holds no dates, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a day count to the set.
+     *
+     * @param days the day count (1 and above)
+     * @return true if the day was not in the set yet, false otherwise
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    public boolean add(int days) {
+        DateHashing.checkKey(days);
+
+        int mask = keys.length - 1;
+        int slot = DateHashing.mix(days) & mask;
+        while (keys[slot] != DateHashing.EMPTY) {
+            if (keys[slot] == days) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Grow before writing, so a full set is left unchanged when growing fails
+        if (size + 1 > threshold) {
+            grow();
+            return add(days);
+        }
+        keys[slot] = days;
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds a date to the set.
+     *
+     * @param date the date to add
+     * @return true if the date was not in the set yet, false otherwise
+     */
+    public boolean add(Date date) {
+        return add(date.toDays());
+    }
+
+    /**
+     * Adds all day counts in the array to the set.
+     *
+     * @param days the day counts to add
+     * @return the number of days that were not in the set yet
+     */
+    public int addAll(int[] days) {
+        presize(days.length);
+        int added = 0;
+        for (int value : days) {
+            if (add(value)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds all dates of a column to the set.
+     *
+     * @param column the column of packed dates
+     * @return the number of dates that were not in the set yet
+     */
+    public int addAll(DateColumn column) {
+        presize(column.size());
+        int added = 0;
+        for (long i = 0; i < column.size(); i++) {
+            if (add(PackedDate.toDays(column.get(i)))) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds all dates of a collection to the set.
+     *
+     * @param dates the dates to add
+     * @return the number of dates that were not in the set yet
+     */
+    public int addAll(Collection<Date> dates) {
+        presize(dates.size());
+        int added = 0;
+        for (Date date : dates) {
+            if (add(date.toDays())) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Checks if the set holds the given day count.
+     *
+     * @param days the day count
+     * @return true if the day is in the set, false otherwise
+     */
+    public boolean contains(int days) {
+        if (days < 1) {
+            return false;
+        }
+
+        int mask = keys.length - 1;
+        int slot = DateHashing.mix(days) & mask;
+        while (keys[slot] != DateHashing.EMPTY) {
+            if (keys[slot] == days) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the set holds the given date.
+     *
+     * @param date the date to look up
+     * @return true if the date is in the set, false otherwise
+     */
+    public boolean contains(Date date) {
+        return contains(date.toDays());
+    }
+
+    /**
+     * Removes a day count from the set.
+     *
+     * @param days the day count
+     * @return true if the day was in the set, false otherwise
+     */
+    public boolean remove(int days) {
+        if (days < 1) {
+            return false;
+        }
+
+        int mask = keys.length - 1;
+        int slot = DateHashing.mix(days) & mask;
+        while (keys[slot] != days) {
+            if (keys[slot] == DateHashing.EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift the following keys of the probe chain back so lookups do not stop at the hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != DateHashing.EMPTY) {
+            int home = DateHashing.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = DateHashing.EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes a date from the set.
+     *
+     * @param date the date to remove
+     * @return true if the date was in the set, false otherwise
+     */
+    public boolean remove(Date date) {
+        return remove(date.toDays());
+    }
+
+    /**
+     * Removes all dates from the set.
+     */
+    public void clear() {
+        Arrays.fill(keys, DateHashing.EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Returns the day counts in the set in no particular order.
+     *
+     * @return a new array with the day counts
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int key : keys) {
+            if (key != DateHashing.EMPTY) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the day counts in the set in ascending order.
+     *
+     * @return a new sorted array with the day counts
+     */
+    public int[] toSortedArray() {
+        int[] result = toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Makes room for up to PRESIZE_LIMIT of the given number of new keys
+    private void presize(long inputSize) {
+        int expectedSize = (int) Math.min(size + Math.min(inputSize, PRESIZE_LIMIT), DateHashing.MAX_CAPACITY);
+        if (expectedSize > threshold) {
+            rehash(DateHashing.tableSize(expectedSize));
+        }
+    }
+
+    // Number of slots in the hash table
+    int capacity() {
+        return keys.length;
+    }
+
+    private void grow() {
+        if (keys.length == DateHashing.MAX_CAPACITY) {
+            throw new IllegalStateException("DateSet is full: " + size + " dates");
+        }
+        rehash(keys.length * 2);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int key : oldKeys) {
+            if (key != DateHashing.EMPTY) {
+                int slot = DateHashing.mix(key) & mask;
+                while (keys[slot] != DateHashing.EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        threshold = (int) (capacity * DateHashing.LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,53 @@
+package date;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A fixed-size summary of a stream of dates, keyed by day count (see {@link Date#toDays()}).
+ * Sketches with the same parameters can be merged, so shards built on different threads
+ * or machines combine into the sketch of the whole stream.
+ *
+ * @param <S> the type of the sketch
+ */
+public interface DateSketch<S extends DateSketch<S>> {
+    /**
+     * Adds one occurrence of a day.
+     *
+     * @param days the day count (1 and above)
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    void add(int days);
+
+    /**
+     * Adds one occurrence of a date.
+     *
+     * @param date the date
+     */
+    default void add(Date date) {
+        add(date.toDays());
+    }
+
+    /**
+     * Adds everything another sketch has seen to this one.
+     *
+     * @param other a sketch with the same parameters
+     * @throws IllegalArgumentException if the parameters differ
+     */
+    void merge(S other);
+
+    /**
+     * Creates an empty sketch with the same parameters.
+     *
+     * @return the empty sketch
+     */
+    S emptyCopy();
+
+    /**
+     * Writes the sketch in its binary format. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
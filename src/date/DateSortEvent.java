@@ -0,0 +1,20 @@
+package date;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for one sort of a date column, see {@link OffHeapDateColumn#sort()}.
+ * Only emitted when {@link DateMetrics#ENABLED} is set and a recording has the event enabled.
+ */
+@Name("date.DateSort")
+@Label("Date Sort")
+@Category("DateProject")
+@Description("Sorting of a column of dates")
+final class DateSortEvent extends Event {
+    @Label("Rows")
+    long rows;
+}
@@ -0,0 +1,302 @@
+package date;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * A fixed-capacity column of packed dates stored outside the Java heap in a {@link MemorySegment}.
+ * The memory belongs to an {@link Arena}: either one passed in by the caller, who then decides
+ * when it is released, or a confined arena owned by the column and released by {@link #close()}.
+ * All bulk operations write their results into off-heap segments as well,
+ * so heap usage does not grow with the number of rows.
+ */
+public final class OffHeapDateColumn implements DateColumn, AutoCloseable {
+    // Bytes per row
+    private static final long ROW_BYTES = ValueLayout.JAVA_INT.byteSize();
+
+    // Radix sort works on 16 bit digits, packed dates are never negative so two passes are enough
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    // Arena the memory comes from, only closed by close() if the column created it
+    private final Arena arena;
+    private final boolean ownsArena;
+
+    // Backing memory and the number of rows it can hold
+    private final MemorySegment segment;
+    private final long capacity;
+
+    // Number of rows written so far
+    private long size;
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       CONSTRUCTORS                                            |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Creates an empty column in the given arena. The column is valid until the arena is closed;
+     * {@link #close()} does not close a caller-provided arena.
+     *
+     * @param arena    the arena to allocate from
+     * @param capacity the maximum number of rows
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public OffHeapDateColumn(Arena arena, long capacity) {
+        this(arena, capacity, false);
+    }
+
+    private OffHeapDateColumn(Arena arena, long capacity, boolean ownsArena) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity + " (must be 0 and above)");
+        }
+        this.arena = arena;
+        this.ownsArena = ownsArena;
+        this.capacity = capacity;
+        this.segment = arena.allocate(capacity * ROW_BYTES, ROW_BYTES);
+    }
+
+    /**
+     * Creates an empty column backed by its own confined arena.
+     * The memory is released by {@link #close()}.
+     *
+     * @param capacity the maximum number of rows
+     * @return the new column
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public static OffHeapDateColumn allocate(long capacity) {
+        return new OffHeapDateColumn(Arena.ofConfined(), capacity, true);
+    }
+
+    /**
+     * Releases the memory of the column if it owns its arena.
+     * Columns created in a caller-provided arena are released together with that arena.
+     */
+    @Override
+    public void close() {
+        if (ownsArena) {
+            arena.close();
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       ACCESS                                                  |
+    //-----------------------------------------------------------------------------------------------|
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of rows.
+     *
+     * @return the capacity of the column
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int get(long index) {
+        checkIndex(index);
+        return segment.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    /**
+     * Replaces the packed date at the given row. The value is not validated,
+     * use {@link #countInvalid()} to check raw input in bulk.
+     *
+     * @param index  the row index (0 to size() - 1)
+     * @param packed the packed date
+     */
+    public void set(long index, int packed) {
+        checkIndex(index);
+        segment.setAtIndex(ValueLayout.JAVA_INT, index, packed);
+    }
+
+    /**
+     * Appends a packed date. The value is not validated.
+     *
+     * @param packed the packed date
+     * @throws IllegalStateException if the column is full
+     */
+    public void append(int packed) {
+        if (size == capacity) {
+            throw new IllegalStateException("Column is full: capacity " + capacity);
+        }
+        segment.setAtIndex(ValueLayout.JAVA_INT, size++, packed);
+    }
+
+    /**
+     * Appends a date.
+     *
+     * @param date the date to append
+     * @throws IllegalStateException if the column is full
+     */
+    public void append(Date date) {
+        append(PackedDate.pack(date));
+    }
+
+    /**
+     * Returns the part of the backing segment that holds the rows, one int per row.
+     *
+     * @return the segment with size() packed dates
+     */
+    public MemorySegment segment() {
+        return segment.asSlice(0, size * ROW_BYTES);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       BULK OPERATIONS                                         |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Counts the rows that do not hold a valid packed date.
+     *
+     * @return the number of invalid rows
+     */
+    public long countInvalid() {
+        long invalid = 0;
+        for (long i = 0; i < size; i++) {
+            if (!PackedDate.isValid(segment.getAtIndex(ValueLayout.JAVA_INT, i))) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Converts every row to the total number of days since year 1 (see {@link Date#toDays()}).
+     *
+     * @param out the arena to allocate the result in
+     * @return a segment with one int per row
+     */
+    public MemorySegment toDays(Arena out) {
+        MemorySegment result = out.allocate(size * ROW_BYTES, ROW_BYTES);
+        for (long i = 0; i < size; i++) {
+            result.setAtIndex(ValueLayout.JAVA_INT, i, PackedDate.toDays(segment.getAtIndex(ValueLayout.JAVA_INT, i)));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the ISO day of the week (1 = Monday, ..., 7 = Sunday) of every row.
+     *
+     * @param out the arena to allocate the result in
+     * @return a segment with one byte per row
+     */
+    public MemorySegment daysOfWeek(Arena out) {
+        MemorySegment result = out.allocate(size);
+        for (long i = 0; i < size; i++) {
+            result.set(ValueLayout.JAVA_BYTE, i, (byte) PackedDate.dayOfWeek(segment.getAtIndex(ValueLayout.JAVA_INT, i)));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the absolute difference in days between each row of this column
+     * and the row with the same index in another column.
+     *
+     * @param other the other column, must have the same size
+     * @param out   the arena to allocate the result in
+     * @return a segment with one int per row
+     * @throws IllegalArgumentException if the columns have different sizes
+     */
+    public MemorySegment differences(DateColumn other, Arena out) {
+        if (other.size() != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + size + " and " + other.size());
+        }
+
+        MemorySegment result = out.allocate(size * ROW_BYTES, ROW_BYTES);
+        for (long i = 0; i < size; i++) {
+            int difference = PackedDate.difference(segment.getAtIndex(ValueLayout.JAVA_INT, i), other.get(i));
+            result.setAtIndex(ValueLayout.JAVA_INT, i, difference);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the absolute difference in days between two rows of this column.
+     *
+     * @param first  the index of the first row
+     * @param second the index of the second row
+     * @return the number of days between the two dates
+     */
+    public int difference(long first, long second) {
+        return PackedDate.difference(get(first), get(second));
+    }
+
+    /**
+     * Sorts the rows in chronological order with an LSD radix sort.
+     * The scratch buffer lives in a temporary off-heap arena, so sorting does not touch the heap
+     * beyond a fixed-size digit histogram.
+     */
+    public void sort() {
+        if (size < 2) {
+            return;
+        }
+        if (DateMetrics.ENABLED) {
+            sortInstrumented();
+            return;
+        }
+        radixSort();
+    }
+
+    // Times the sort and emits a DateSortEvent, only used when metrics are enabled
+    private void sortInstrumented() {
+        DateSortEvent event = new DateSortEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        radixSort();
+
+        DateMetrics.recordBatch(DateMetrics.Operation.SORT, size, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = size;
+            event.commit();
+        }
+    }
+
+    private void radixSort() {
+        try (Arena scratchArena = Arena.ofConfined()) {
+            MemorySegment from = segment;
+            MemorySegment to = scratchArena.allocate(size * ROW_BYTES, ROW_BYTES);
+            long[] counts = new long[RADIX];
+
+            for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+                Arrays.fill(counts, 0);
+                for (long i = 0; i < size; i++) {
+                    counts[(from.getAtIndex(ValueLayout.JAVA_INT, i) >>> shift) & (RADIX - 1)]++;
+                }
+
+                // Turn counts into start positions
+                long position = 0;
+                for (int digit = 0; digit < RADIX; digit++) {
+                    long count = counts[digit];
+                    counts[digit] = position;
+                    position += count;
+                }
+
+                for (long i = 0; i < size; i++) {
+                    int value = from.getAtIndex(ValueLayout.JAVA_INT, i);
+                    to.setAtIndex(ValueLayout.JAVA_INT, counts[(value >>> shift) & (RADIX - 1)]++, value);
+                }
+
+                MemorySegment swap = from;
+                from = to;
+                to = swap;
+            }
+
+            // An even number of passes leaves the result in the original segment
+        }
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid index: " + index + " (must be 0-" + (size - 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package date;
+
+/**
+ * Static helpers for dates packed into a single int as (year &lt;&lt; 9) | (month &lt;&lt; 5) | day.
+ * Packed dates take 4 bytes instead of a whole Date object and sort in chronological order
+ * when compared as plain ints. Years from 1 to {@link #MAX_YEAR} can be packed.
+ */
+public final class PackedDate {
+    /**
+     * The largest year that fits into a packed date.
+     */
+    public static final int MAX_YEAR = (1 << 22) - 1;
+
+    // Days before the first day of each month in a common year
+    private static final int[] DAYS_BEFORE_MONTH = { 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334 };
+
+    // Days in each month in a common year, index 0 is unused
+    private static final int[] DAYS_IN_MONTH = { 0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    // Day names indexed by ISO day of week (1 = Monday, ..., 7 = Sunday), index 0 is unused
+    private static final String[] DAY_NAMES = { "", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday" };
+
+    private PackedDate() {
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       PACKING                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Packs the given date into an int.
+     *
+     * @param month the month of the year (1 to 12)
+     * @param day   the day of the month
+     * @param year  the year (1 to MAX_YEAR)
+     * @return the packed date
+     * @throws IllegalArgumentException if the date is invalid or the year is above MAX_YEAR
+     */
+    public static int pack(int month, int day, int year) {
+        if (year > MAX_YEAR || !Date.isValid(month, day, year)) {
+            throw new IllegalArgumentException("Invalid date: " + month + " " + day + ", " + year);
+        }
+        return (year << 9) | (month << 5) | day;
+    }
+
+    /**
+     * Packs the given Date into an int.
+     *
+     * @param date the date to pack
+     * @return the packed date
+     * @throws IllegalArgumentException if the year is above MAX_YEAR
+     */
+    public static int pack(Date date) {
+        return pack(date.getMonth(), date.getDay(), date.getYear());
+    }
+
+    /**
+     * Unpacks the given packed date into a Date object.
+     *
+     * @param packed the packed date
+     * @return the unpacked Date
+     * @throws IllegalArgumentException if the packed date is invalid
+     */
+    public static Date toDate(int packed) {
+        return new Date(month(packed), day(packed), year(packed));
+    }
+
+    /**
+     * Returns the month of a packed date.
+     *
+     * @param packed the packed date
+     * @return the month (1-12)
+     */
+    public static int month(int packed) {
+        return (packed >>> 5) & 0xF;
+    }
+
+    /**
+     * Returns the day of a packed date.
+     *
+     * @param packed the packed date
+     * @return the day of the month
+     */
+    public static int day(int packed) {
+        return packed & 0x1F;
+    }
+
+    /**
+     * Returns the year of a packed date.
+     *
+     * @param packed the packed date
+     * @return the year
+     */
+    public static int year(int packed) {
+        return packed >>> 9;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       OPERATIONS                                              |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Checks if the given int is a valid packed date.
+     * Never throws, so it can be used to filter raw input.
+     *
+     * @param packed the packed date
+     * @return true if the packed date is valid, false otherwise
+     */
+    public static boolean isValid(int packed) {
+        int year = year(packed);
+        int month = month(packed);
+        int day = day(packed);
+        return year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(month, year);
+    }
+
+    /**
+     * Converts a packed date to the total number of days since year 1,
+     * the same value as {@link Date#toDays()}. The packed date is not validated.
+     *
+     * @param packed the packed date
+     * @return the total number of days from year 1 to the given date
+     */
+    public static int toDays(int packed) {
+        int year = year(packed);
+        int month = month(packed);
+        int y = year - 1;
+
+        int days = y * 365 + y / 4 - y / 100 + y / 400 + DAYS_BEFORE_MONTH[month - 1] + day(packed);
+        if (month > 2 && isLeap(year)) {
+            days++;
+        }
+        return days;
+    }
+
+    /**
+     * Converts the total number of days since year 1 to a packed date.
+     * This is the inverse of {@link #toDays(int)} and does not allocate.
+     *
+     * @param days the total number of days from year 1 (1 and above)
+     * @return the packed date
+     * @throws IllegalArgumentException if days is less than 1 or the year is above MAX_YEAR
+     */
+    public static int fromDays(int days) {
+        long civil = civil(days);
+        if (civil >>> 9 > MAX_YEAR) {
+            throw new IllegalArgumentException("Invalid day count: " + days + " (year " + (civil >>> 9) + " is above " + MAX_YEAR + ")");
+        }
+        return (int) civil;
+    }
+
+    /**
+     * Converts the total number of days since year 1 to (year &lt;&lt; 9) | (month &lt;&lt; 5) | day
+     * as a long, so that every int day count fits. Shared by {@link #fromDays(int)} and {@link Date#fromDays(int)}.
+     *
+     * @param days the total number of days from year 1 (1 and above)
+     * @return the year, month and day packed into a long
+     * @throws IllegalArgumentException if days is less than 1
+     */
+    static long civil(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Invalid day count: " + days + " (must be 1 and above)");
+        }
+
+        int n = days - 1; // Zero-based day count
+
+        // Split into 400, 100, 4 and 1 year cycles
+        int cycles400 = n / 146097;
+        n %= 146097;
+        int cycles100 = n / 36524;
+        n %= 36524;
+        int cycles4 = n / 1461;
+        n %= 1461;
+        int years = n / 365;
+        n %= 365;
+
+        long year = 400L * cycles400 + 100 * cycles100 + 4 * cycles4 + years;
+
+        // The last day of a leap cycle overflows into a fifth year, it is December 31 of the previous one
+        if (cycles100 == 4 || years == 4) {
+            return (year << 9) | (12 << 5) | 31;
+        }
+        year += 1;
+
+        // n is the zero-based day of the year; n / 32 never overshoots the month, so at most two steps remain
+        boolean leap = isLeap((int) year);
+        int month = (n >> 5) + 1;
+        while (month < 12 && n >= daysBeforeMonth(month + 1, leap)) {
+            month++;
+        }
+        int day = n - daysBeforeMonth(month, leap) + 1;
+
+        return (year << 9) | (month << 5) | day;
+    }
+    /**
+     * Returns the ISO day of the week of a packed date (1 = Monday, ..., 7 = Sunday).
+     * January 1 of year 1 was a Monday in the proleptic Gregorian calendar.
+     *
+     * @param packed the packed date
+     * @return the day of the week (1-7)
+     */
+    public static int dayOfWeek(int packed) {
+        return (toDays(packed) - 1) % 7 + 1;
+    }
+
+    /**
+     * Returns the name of an ISO day of the week (e.g., "Monday").
+     *
+     * @param dayOfWeek the day of the week (1 = Monday, ..., 7 = Sunday)
+     * @return the name of the day of the week
+     * @throws IllegalArgumentException if dayOfWeek is not in the range 1-7
+     */
+    public static String dayOfWeekName(int dayOfWeek) {
+        if (dayOfWeek < 1 || dayOfWeek > 7) {
+            throw new IllegalArgumentException("Invalid day of week: " + dayOfWeek + " (must be 1-7)");
+        }
+        return DAY_NAMES[dayOfWeek];
+    }
+
+    /**
+     * Computes the absolute difference in days between two packed dates.
+     *
+     * @param first  the first packed date
+     * @param second the second packed date
+     * @return the number of days between the two dates
+     */
+    public static int difference(int first, int second) {
+        return Math.abs(toDays(first) - toDays(second));
+    }
+
+    /**
+     * Returns the age in whole years on a given day of someone born on another day.
+     * Someone born on February 29 turns a year older on March 1 in common years.
+     *
+     * @param birthDate the packed date of birth
+     * @param asOf      the packed date to compute the age on, not before birthDate
+     * @return the number of completed years
+     */
+    public static int ageInYears(int birthDate, int asOf) {
+        // (month << 5) | day orders days within a year; the sign of the key difference is the borrow
+        return year(asOf) - year(birthDate) + (((asOf & 0x1FF) - (birthDate & 0x1FF)) >> 31);
+    }
+
+    /**
+     * Returns the number of days in a month without validating the arguments.
+     *
+     * @param month the month (1-12)
+     * @param year  the year (1 and above)
+     * @return the number of days in the month
+     */
+    static int daysInMonth(int month, int year) {
+        return (month == 2 && isLeap(year)) ? 29 : DAYS_IN_MONTH[month];
+    }
+
+    // Days in the year before the first day of a month
+    private static int daysBeforeMonth(int month, boolean leap) {
+        return DAYS_BEFORE_MONTH[month - 1] + (leap && month > 2 ? 1 : 0);
+    }
+
+    /**
+     * Leap year check without validating the year.
+     *
+     * @param year the year
+     * @return true if the year is a leap year, false otherwise
+     */
+    static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
@@ -0,0 +1,224 @@
+package date;
+
+import java.util.stream.IntStream;
+
+/**
+ * Bulk operations over arrays of packed dates (see {@link PackedDate}).
+ * Each packed date is converted to a day count exactly once per call, and callers that use a column
+ * in several calls can convert it once with {@link #toDays(int[])} and work on day counts from then on.
+ *
+ * Arrays with at least {@link #PARALLEL_THRESHOLD} results are split into chunks that run on the
+ * common fork-join pool. The packed dates are not validated.
+ */
+public final class PackedDateArrays {
+    /**
+     * The number of results from which a call runs in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Elements per parallel chunk
+    private static final int CHUNK = 1 << 14;
+
+    // Tile of the difference matrix: a block of columns stays in the L1 cache while the rows stream past it
+    private static final int BLOCK_ROWS = 64;
+    private static final int BLOCK_COLUMNS = 2048;
+
+    // Largest array the JVM can allocate
+    private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+    private PackedDateArrays() {
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       CONVERSION                                              |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Converts packed dates to day counts (see {@link PackedDate#toDays(int)}).
+     *
+     * @param packed the packed dates
+     * @return a new array with the day count of each date
+     */
+    public static int[] toDays(int[] packed) {
+        int[] days = new int[packed.length];
+        toDays(packed, days);
+        return days;
+    }
+
+    /**
+     * Converts packed dates to day counts into an existing array.
+     *
+     * @param packed the packed dates
+     * @param out    the array that receives the day counts, at least as long as packed
+     * @throws IllegalArgumentException if out is too short
+     */
+    public static void toDays(int[] packed, int[] out) {
+        checkOut(out, packed.length);
+        run(packed.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = PackedDate.toDays(packed[i]);
+            }
+        });
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       DIFFERENCES                                             |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Computes the absolute difference in days between each pair of packed dates a[i] and b[i].
+     *
+     * @param a   the first packed dates
+     * @param b   the second packed dates, as many as a
+     * @param out the array that receives the differences, at least as long as a
+     * @throws IllegalArgumentException if a and b have different lengths or out is too short
+     */
+    public static void differences(int[] a, int[] b, int[] out) {
+        checkLengths(a, b);
+        checkOut(out, a.length);
+        run(a.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = Math.abs(PackedDate.toDays(a[i]) - PackedDate.toDays(b[i]));
+            }
+        });
+    }
+
+    /**
+     * Computes the absolute difference between each pair of day counts a[i] and b[i].
+     * Use it with columns that were converted once with {@link #toDays(int[])}.
+     *
+     * @param a   the first day counts
+     * @param b   the second day counts, as many as a
+     * @param out the array that receives the differences, at least as long as a
+     * @throws IllegalArgumentException if a and b have different lengths or out is too short
+     */
+    public static void dayDifferences(int[] a, int[] b, int[] out) {
+        checkLengths(a, b);
+        checkOut(out, a.length);
+        run(a.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = Math.abs(a[i] - b[i]);
+            }
+        });
+    }
+
+    /**
+     * Computes the absolute difference in days between every packed date of a and every packed date of b.
+     *
+     * @param a the packed dates of the rows
+     * @param b the packed dates of the columns
+     * @return the differences in row-major order: the entry for a[i] and b[j] is at i * b.length + j
+     * @throws IllegalArgumentException if the matrix does not fit into an array
+     */
+    public static int[] differenceMatrix(int[] a, int[] b) {
+        long cells = (long) a.length * b.length;
+        if (cells > MAX_ARRAY) {
+            throw new IllegalArgumentException("Matrix too large: " + a.length + " x " + b.length
+                    + " (must have at most " + MAX_ARRAY + " cells)");
+        }
+        int[] out = new int[(int) cells];
+        dayDifferenceMatrix(toDays(a), toDays(b), out);
+        return out;
+    }
+
+    /**
+     * Computes the absolute difference between every day count of a and every day count of b.
+     * The matrix is filled in tiles so that a block of b stays in the cache while it is reused
+     * by a block of rows; with enough cells, row blocks are filled in parallel.
+     *
+     * @param a   the day counts of the rows
+     * @param b   the day counts of the columns
+     * @param out the array that receives the differences in row-major order,
+     *            at least a.length * b.length long
+     * @throws IllegalArgumentException if out is too short
+     */
+    public static void dayDifferenceMatrix(int[] a, int[] b, int[] out) {
+        long cells = (long) a.length * b.length;
+        if (out.length < cells) {
+            throw new IllegalArgumentException("Output too short: " + out.length + " (must be at least " + cells + ")");
+        }
+
+        int columns = b.length;
+        int rowBlocks = (a.length + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        IntStream blocks = IntStream.range(0, rowBlocks);
+        if (cells >= PARALLEL_THRESHOLD) {
+            blocks = blocks.parallel();
+        }
+
+        blocks.forEach(block -> {
+            int rowFrom = block * BLOCK_ROWS;
+            int rowTo = Math.min(rowFrom + BLOCK_ROWS, a.length);
+            for (int columnFrom = 0; columnFrom < columns; columnFrom += BLOCK_COLUMNS) {
+                int columnTo = Math.min(columnFrom + BLOCK_COLUMNS, columns);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int day = a[i];
+                    int offset = i * columns;
+                    for (int j = columnFrom; j < columnTo; j++) {
+                        out[offset + j] = Math.abs(day - b[j]);
+                    }
+                }
+            }
+        });
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       AGES                                                    |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Computes the age in whole years of each person on a given day (see {@link PackedDate#ageInYears(int, int)}).
+     * The comparison of (month, day) keys has no branches, so the loop does not suffer from mispredictions.
+     *
+     * @param birthDates the packed dates of birth, none after asOf
+     * @param asOf       the packed date to compute the ages on
+     * @param out        the array that receives the ages, at least as long as birthDates
+     * @throws IllegalArgumentException if out is too short
+     */
+    public static void ageInYears(int[] birthDates, int asOf, int[] out) {
+        checkOut(out, birthDates.length);
+        int year = PackedDate.year(asOf);
+        int key = asOf & 0x1FF;
+        run(birthDates.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int birthDate = birthDates[i];
+                out[i] = year - (birthDate >>> 9) + ((key - (birthDate & 0x1FF)) >> 31);
+            }
+        });
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // A loop over the index range [from, to)
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    // Runs the task over [0, length), in parallel chunks once the length reaches the threshold
+    private static void run(int length, RangeTask task) {
+        if (length < PARALLEL_THRESHOLD) {
+            task.run(0, length);
+            return;
+        }
+
+        int chunks = (length + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK;
+            task.run(from, Math.min(from + CHUNK, length));
+        });
+    }
+
+    private static void checkLengths(int[] a, int[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Array lengths differ: " + a.length + " and " + b.length);
+        }
+    }
+
+    private static void checkOut(int[] out, int length) {
+        if (out.length < length) {
+            throw new IllegalArgumentException("Output too short: " + out.length + " (must be at least " + length + ")");
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package date;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An RRULE-like recurrence rule over dates, such as "every 2nd Tuesday of the month",
+ * "last business day of the month" or "February 29 every leap year".
+ * Occurrences are computed arithmetically: daily and weekly rules step by a fixed number of days,
+ * monthly and yearly rules jump straight to the next candidate month and find the day from
+ * the weekday of the first of the month. No method scans day by day.
+ * Days of the week use ISO numbering (1 = Monday, ..., 7 = Sunday) as in {@link PackedDate#dayOfWeek(int)}.
+ */
+public final class Recurrence {
+    /**
+     * How often the rule repeats.
+     */
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    // How the day is chosen inside a candidate month
+    private enum DayRule {
+        DAY_OF_MONTH, NTH_WEEKDAY, NTH_BUSINESS_DAY
+    }
+
+    // Months in the 400 year cycle after which the calendar repeats exactly
+    private static final int CYCLE_MONTHS = 400 * 12;
+
+    private final Frequency frequency;
+    private final int interval;
+
+    // First day (as a day count) on or after which occurrences are produced
+    private final int start;
+
+    // Day rule of monthly and yearly rules; n is the day of month or the ordinal, negative counts from the end
+    private final DayRule dayRule;
+    private final int n;
+    private final int dayOfWeek;
+
+    // Step between occurrences in days (daily, weekly) or months (monthly, yearly)
+    private final int step;
+
+    // Daily and weekly: the first occurrence. Monthly and yearly: month index of the first candidate month
+    private final int base;
+
+    // Candidates after which the hit pattern of a monthly or yearly rule repeats, and the hits in one period
+    private final int period;
+    private final int hitsPerPeriod;
+
+    // prefixHits[k] is the number of candidates in [0, k) that have an occurrence, for k in [0, period]
+    private final int[] prefixHits;
+
+    private Recurrence(Frequency frequency, int interval, Date start, int month, DayRule dayRule, int n, int dayOfWeek) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Invalid interval: " + interval + " (must be 1 and above)");
+        }
+        if (start.getYear() > PackedDate.MAX_YEAR) {
+            throw new IllegalArgumentException("Invalid start year: " + start.getYear() + " (must be at most " + PackedDate.MAX_YEAR + ")");
+        }
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.start = start.toDays();
+        this.dayRule = dayRule;
+        this.n = n;
+        this.dayOfWeek = dayOfWeek;
+
+        switch (frequency) {
+            case DAILY:
+                this.step = interval;
+                this.base = this.start;
+                break;
+            case WEEKLY:
+                this.step = 7 * interval;
+                this.base = this.start + Math.floorMod(dayOfWeek - weekday(this.start), 7);
+                break;
+            case MONTHLY:
+                this.step = interval;
+                this.base = monthIndex(start.getYear(), start.getMonth());
+                break;
+            default:
+                this.step = 12 * interval;
+                this.base = monthIndex(start.getYear(), month);
+                break;
+        }
+
+        if (frequency == Frequency.MONTHLY || frequency == Frequency.YEARLY) {
+            this.period = CYCLE_MONTHS / gcd(step, CYCLE_MONTHS);
+            this.prefixHits = prefixHits(period);
+            this.hitsPerPeriod = prefixHits[period];
+        } else {
+            this.period = 1;
+            this.prefixHits = new int[] { 0, 1 };
+            this.hitsPerPeriod = 1;
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       FACTORIES                                               |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Creates a rule that repeats every interval days, starting on the start date.
+     *
+     * @param start    the first occurrence
+     * @param interval the number of days between occurrences (1 and above)
+     * @return the rule
+     * @throws IllegalArgumentException if interval is less than 1
+     */
+    public static Recurrence daily(Date start, int interval) {
+        return new Recurrence(Frequency.DAILY, interval, start, 0, null, 0, 0);
+    }
+
+    /**
+     * Creates a rule that repeats on the given day of the week every interval weeks.
+     *
+     * @param start     the date on or after which the first occurrence falls
+     * @param interval  the number of weeks between occurrences (1 and above)
+     * @param dayOfWeek the day of the week (1 = Monday, ..., 7 = Sunday)
+     * @return the rule
+     * @throws IllegalArgumentException if interval or dayOfWeek is out of range
+     */
+    public static Recurrence weekly(Date start, int interval, int dayOfWeek) {
+        checkDayOfWeek(dayOfWeek);
+        return new Recurrence(Frequency.WEEKLY, interval, start, 0, null, 0, dayOfWeek);
+    }
+
+    /**
+     * Creates a rule that repeats on a day of the month every interval months.
+     * Negative days count from the end of the month (-1 is the last day).
+     * Months without that day (e.g. the 31st in April) are skipped.
+     *
+     * @param start      the date on or after which the first occurrence falls
+     * @param interval   the number of months between occurrences (1 and above)
+     * @param dayOfMonth the day of the month (1 to 31 or -31 to -1)
+     * @return the rule
+     * @throws IllegalArgumentException if interval or dayOfMonth is out of range
+     */
+    public static Recurrence monthlyOnDay(Date start, int interval, int dayOfMonth) {
+        checkOrdinal(dayOfMonth, 31, "day of month");
+        return new Recurrence(Frequency.MONTHLY, interval, start, 0, DayRule.DAY_OF_MONTH, dayOfMonth, 0);
+    }
+
+    /**
+     * Creates a rule that repeats on the n-th given weekday of the month every interval months,
+     * e.g. n = 2 and dayOfWeek = 2 for "every 2nd Tuesday", n = -1 and dayOfWeek = 5 for "last Friday".
+     * Months without that weekday (e.g. no 5th Monday) are skipped.
+     *
+     * @param start     the date on or after which the first occurrence falls
+     * @param interval  the number of months between occurrences (1 and above)
+     * @param n         the ordinal of the weekday (1 to 5 or -5 to -1)
+     * @param dayOfWeek the day of the week (1 = Monday, ..., 7 = Sunday)
+     * @return the rule
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Recurrence monthlyOnWeekday(Date start, int interval, int n, int dayOfWeek) {
+        checkOrdinal(n, 5, "weekday ordinal");
+        checkDayOfWeek(dayOfWeek);
+        return new Recurrence(Frequency.MONTHLY, interval, start, 0, DayRule.NTH_WEEKDAY, n, dayOfWeek);
+    }
+
+    /**
+     * Creates a rule that repeats on the n-th business day (Monday to Friday) of the month
+     * every interval months, e.g. n = -1 for "last business day of the month".
+     *
+     * @param start    the date on or after which the first occurrence falls
+     * @param interval the number of months between occurrences (1 and above)
+     * @param n        the ordinal of the business day (1 to 23 or -23 to -1)
+     * @return the rule
+     * @throws IllegalArgumentException if interval or n is out of range
+     */
+    public static Recurrence monthlyOnBusinessDay(Date start, int interval, int n) {
+        checkOrdinal(n, 23, "business day ordinal");
+        return new Recurrence(Frequency.MONTHLY, interval, start, 0, DayRule.NTH_BUSINESS_DAY, n, 0);
+    }
+
+    /**
+     * Creates a rule that repeats on a day of the given month every interval years.
+     * Years without that day are skipped, so February 29 only occurs in leap years.
+     *
+     * @param start      the date on or after which the first occurrence falls
+     * @param interval   the number of years between occurrences (1 and above)
+     * @param month      the month (1-12)
+     * @param dayOfMonth the day of the month (1 to 31 or -31 to -1)
+     * @return the rule
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Recurrence yearlyOnDay(Date start, int interval, int month, int dayOfMonth) {
+        checkMonth(month);
+        checkOrdinal(dayOfMonth, 31, "day of month");
+        return new Recurrence(Frequency.YEARLY, interval, start, month, DayRule.DAY_OF_MONTH, dayOfMonth, 0);
+    }
+
+    /**
+     * Creates a rule that repeats on the n-th given weekday of the given month every interval years,
+     * e.g. month = 11, n = 4 and dayOfWeek = 4 for "4th Thursday of November".
+     *
+     * @param start     the date on or after which the first occurrence falls
+     * @param interval  the number of years between occurrences (1 and above)
+     * @param month     the month (1-12)
+     * @param n         the ordinal of the weekday (1 to 5 or -5 to -1)
+     * @param dayOfWeek the day of the week (1 = Monday, ..., 7 = Sunday)
+     * @return the rule
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Recurrence yearlyOnWeekday(Date start, int interval, int month, int n, int dayOfWeek) {
+        checkMonth(month);
+        checkOrdinal(n, 5, "weekday ordinal");
+        checkDayOfWeek(dayOfWeek);
+        return new Recurrence(Frequency.YEARLY, interval, start, month, DayRule.NTH_WEEKDAY, n, dayOfWeek);
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       OCCURRENCES                                             |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the frequency of the rule.
+     *
+     * @return the frequency
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the number of days, weeks, months or years between candidate occurrences.
+     *
+     * @return the interval
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns the first occurrence on or after the given day count.
+     *
+     * @param fromDays the day count to search from
+     * @return the day count of the occurrence, or -1 if there is none
+     */
+    public int nextDays(int fromDays) {
+        int from = Math.max(fromDays, start);
+
+        if (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY) {
+            long next = base + ceilDiv((long) from - base, step) * step;
+            return (next > Integer.MAX_VALUE) ? -1 : (int) next;
+        }
+
+        if (hitsPerPeriod == 0) {
+            return -1;
+        }
+
+        // Jump to the candidate month of the start day; the hit pattern repeats after period candidates
+        long k = ceilDiv(monthIndex(from) - base, step);
+        for (int i = 0; i <= period; i++, k++) {
+            int day = candidate(k);
+            if (day == -2) {
+                return -1; // Past the largest supported year
+            }
+            if (day >= from) {
+                return day;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first occurrence strictly after the given date.
+     *
+     * @param after the date to search after
+     * @return the next occurrence, or null if there is none
+     */
+    public Date next(Date after) {
+        int day = nextDays(after.toDays() + 1);
+        return (day < 0) ? null : Date.fromDays(day);
+    }
+
+    /**
+     * Checks if the rule occurs on the given date.
+     *
+     * @param date the date to check
+     * @return true if the date is an occurrence, false otherwise
+     */
+    public boolean occursOn(Date date) {
+        int days = date.toDays();
+        return nextDays(days) == days;
+    }
+
+    /**
+     * Returns a lazy stream of the occurrences on or after the given day count, in ascending order.
+     * Each element is computed only when it is consumed.
+     *
+     * @param fromDays the day count to start from
+     * @return the stream of day counts
+     */
+    public IntStream occurrenceDays(int fromDays) {
+        int first = nextDays(fromDays);
+        return IntStream.iterate(first, day -> day >= 0, day -> (day == Integer.MAX_VALUE) ? -1 : nextDays(day + 1));
+    }
+
+    /**
+     * Returns a lazy stream of the occurrences on or after the given date, in ascending order.
+     *
+     * @param from the date to start from
+     * @return the stream of dates
+     */
+    public Stream<Date> occurrences(Date from) {
+        return occurrenceDays(from.toDays()).mapToObj(Date::fromDays);
+    }
+
+    /**
+     * Counts the occurrences between two day counts, both included, without enumerating them.
+     * Daily and weekly rules are counted with a division; monthly and yearly rules use the fact
+     * that the calendar repeats every 400 years.
+     *
+     * @param fromDays the first day count (inclusive)
+     * @param toDays   the last day count (inclusive)
+     * @return the number of occurrences
+     */
+    public long countBetween(int fromDays, int toDays) {
+        int from = Math.max(fromDays, start);
+        if (from > toDays) {
+            return 0;
+        }
+
+        if (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY) {
+            int first = nextDays(from);
+            return (first < 0 || first > toDays) ? 0 : ((long) toDays - first) / step + 1;
+        }
+
+        long firstK = ceilDiv(monthIndex(from) - base, step);
+        long lastK = Math.floorDiv(monthIndex(toDays) - base, step);
+        if (firstK > lastK) {
+            return 0;
+        }
+
+        long count = hitsBefore(lastK + 1) - hitsBefore(firstK);
+
+        // The candidate months at both ends may hold an occurrence outside the range
+        int firstDay = candidate(firstK);
+        if (firstDay >= 0 && firstDay < from) {
+            count--;
+        }
+        int lastDay = candidate(lastK);
+        if (lastDay > toDays) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the occurrences between two dates, both included, without enumerating them.
+     *
+     * @param from the first date (inclusive)
+     * @param to   the last date (inclusive)
+     * @return the number of occurrences
+     */
+    public long countBetween(Date from, Date to) {
+        return countBetween(from.toDays(), to.toDays());
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       HELPERS                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    // Returns the occurrence in the k-th candidate month, -1 if the month has none, -2 past the largest year
+    private int candidate(long k) {
+        long index = base + k * step;
+        if (index < 0) {
+            return -1;
+        }
+        long year = index / 12 + 1;
+        if (year > PackedDate.MAX_YEAR) {
+            return -2;
+        }
+
+        int month = (int) (index % 12) + 1;
+        int day = dayInMonth((int) year, month);
+        return (day < 0) ? -1 : PackedDate.toDays(((int) year << 9) | (month << 5) | day);
+    }
+
+    // Returns the chosen day of the month, or -1 if the month has none
+    private int dayInMonth(int year, int month) {
+        int length = PackedDate.daysInMonth(month, year);
+        int day;
+
+        switch (dayRule) {
+            case DAY_OF_MONTH:
+                day = (n > 0) ? n : length + n + 1;
+                break;
+            case NTH_WEEKDAY:
+                if (n > 0) {
+                    int firstWeekday = weekday(PackedDate.toDays((year << 9) | (month << 5) | 1));
+                    day = 1 + Math.floorMod(dayOfWeek - firstWeekday, 7) + 7 * (n - 1);
+                } else {
+                    int lastWeekday = weekday(PackedDate.toDays((year << 9) | (month << 5) | length));
+                    day = length - Math.floorMod(lastWeekday - dayOfWeek, 7) - 7 * (-n - 1);
+                }
+                break;
+            default:
+                day = businessDay(year, month, length);
+                break;
+        }
+
+        return (day >= 1 && day <= length) ? day : -1;
+    }
+
+    // Every 5 business days are followed or preceded by a weekend, so the day follows from the ordinal
+    private int businessDay(int year, int month, int length) {
+        if (n > 0) {
+            int firstWeekday = weekday(PackedDate.toDays((year << 9) | (month << 5) | 1));
+            int first = (firstWeekday <= 5) ? 1 : 9 - firstWeekday; // Saturday -> 3, Sunday -> 2
+            int offset = (firstWeekday <= 5) ? firstWeekday - 1 : 0;  // Business days since Monday
+            int k = n - 1;
+            return first + k + 2 * ((offset + k) / 5);
+        }
+
+        int lastWeekday = weekday(PackedDate.toDays((year << 9) | (month << 5) | length));
+        int last = (lastWeekday <= 5) ? length : length + 5 - lastWeekday; // Saturday -> -1, Sunday -> -2
+        int offset = (lastWeekday <= 5) ? 5 - lastWeekday : 0;               // Business days until Friday
+        int k = -n - 1;
+        return last - k - 2 * ((offset + k) / 5);
+    }
+
+    // Number of hits among the candidates [0, k)
+    private long hitsBefore(long k) {
+        if (k <= 0) {
+            return 0;
+        }
+        if (hitsPerPeriod == period) {
+            return k; // Every candidate month has an occurrence
+        }
+        return (k / period) * hitsPerPeriod + prefixHits[(int) (k % period)];
+    }
+
+    // Running count of the candidates in [0, k) that have an occurrence, for every k in [0, period]
+    private int[] prefixHits(int period) {
+        int[] prefix = new int[period + 1];
+        for (int k = 0; k < period; k++) {
+            // Only the position in the 400 year cycle matters, so shift the candidate into the first cycle
+            int index = (int) ((base % CYCLE_MONTHS + (long) k * step) % CYCLE_MONTHS);
+            prefix[k + 1] = prefix[k] + ((dayInMonth(index / 12 + 1, index % 12 + 1) >= 0) ? 1 : 0);
+        }
+        return prefix;
+    }
+
+    private static int monthIndex(int year, int month) {
+        return (year - 1) * 12 + (month - 1);
+    }
+
+    // Month index of a day count, computed from the packed civil date without creating a Date
+    private static int monthIndex(int days) {
+        long civil = PackedDate.civil(days);
+        return monthIndex((int) (civil >>> 9), (int) (civil >>> 5) & 0xF);
+    }
+
+    private static int weekday(int days) {
+        return (days - 1) % 7 + 1;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static void checkDayOfWeek(int dayOfWeek) {
+        if (dayOfWeek < 1 || dayOfWeek > 7) {
+            throw new IllegalArgumentException("Invalid day of week: " + dayOfWeek + " (must be 1-7)");
+        }
+    }
+
+    private static void checkMonth(int month) {
+        if (!Date.isValidMonth(month)) {
+            throw new IllegalArgumentException("Invalid month: " + month + " (must be 1-12)");
+        }
+    }
+
+    private static void checkOrdinal(int value, int max, String name) {
+        if (value == 0 || value > max || value < -max) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value + " (must be 1 to " + max + " or -" + max + " to -1)");
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package date;
+
+/**
+ * Trailing-window counts and sums over events that arrive in date order, e.g. "events in the last
+ * 30, 90 and 365 days" for every day of a long history, computed in a single pass.
+ * Every day that has events gets one bucket with its count and sum in a ring buffer; when the window
+ * slides, buckets that fall out of a window are subtracted from that window's running totals,
+ * so each event is added and removed once per window.
+ *
+ * Aggregates are reported to a {@link Listener} as runs of days over which no aggregate changes.
+ * Inside a gap between events the totals only change on the days an old bucket leaves a window,
+ * so a gap of any length costs as many steps as buckets expire in it, not as many as it has days.
+ */
+public final class RollingDateWindow {
+    /**
+     * Receives the aggregates of every closed day.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called for a run of consecutive days that share the same aggregates.
+         * The aggregates are read from the window with {@link #count(int)} and {@link #sum(int)}
+         * and are only valid during the call.
+         *
+         * @param fromDays the first day count of the run (inclusive)
+         * @param toDays   the last day count of the run (inclusive)
+         * @param window   the window holding the aggregates of the run
+         */
+        void onDays(int fromDays, int toDays, RollingDateWindow window);
+    }
+
+    /**
+     * The largest window width, so that the power of two bucket capacity fits in an int.
+     */
+    public static final int MAX_WIDTH = 1 << 30;
+
+    // Bucket capacity to start with; the ring doubles as more distinct days are live at once
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Window widths in days
+    private final int[] widths;
+
+    // Ring buffer of the days that have events, oldest first, with their count and sum
+    private int[] bucketDays;
+    private long[] bucketCounts;
+    private long[] bucketSums;
+    private int mask;
+
+    // A window never holds more buckets than it has days, so the ring never grows past this
+    private final int maxCapacity;
+
+    // Sequence numbers of the oldest and the next bucket; slot = sequence & mask
+    private long head;
+    private long tail;
+
+    // Per window: sequence number of its oldest bucket and its running totals
+    private final long[] oldest;
+    private final long[] counts;
+    private final long[] sums;
+
+    private final Listener listener;
+
+    // The open day, -1 before the first event
+    private int current = -1;
+
+    /**
+     * Creates a window set with the given widths.
+     *
+     * @param listener the receiver of the aggregates, or null to only query them
+     * @param widths   the window widths in days, each 1 to {@link #MAX_WIDTH} (e.g. 30, 90, 365)
+     * @throws IllegalArgumentException if no width is given or a width is out of range
+     */
+    public RollingDateWindow(Listener listener, int... widths) {
+        if (widths.length == 0) {
+            throw new IllegalArgumentException("At least one window width is required.");
+        }
+
+        int maxWidth = 0;
+        for (int width : widths) {
+            if (width < 1 || width > MAX_WIDTH) {
+                throw new IllegalArgumentException("Invalid window width: " + width + " (must be 1-" + MAX_WIDTH + ")");
+            }
+            maxWidth = Math.max(maxWidth, width);
+        }
+
+        this.maxCapacity = Integer.highestOneBit(Math.max(1, maxWidth - 1)) << 1;
+        int capacity = Math.min(INITIAL_CAPACITY, maxCapacity);
+        this.widths = widths.clone();
+        this.bucketDays = new int[capacity];
+        this.bucketCounts = new long[capacity];
+        this.bucketSums = new long[capacity];
+        this.mask = capacity - 1;
+        this.oldest = new long[widths.length];
+        this.counts = new long[widths.length];
+        this.sums = new long[widths.length];
+        this.listener = listener;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       EVENTS                                                  |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Adds an event. Days before the event's day are closed and reported to the listener.
+     *
+     * @param days  the day count of the event, not before the current day
+     * @param value the value added to the sums
+     * @throws IllegalArgumentException if the event is before the current day
+     */
+    public void add(int days, long value) {
+        advanceTo(days);
+
+        if (head == tail || bucketDays[(int) ((tail - 1) & mask)] != days) {
+            if (tail - head > mask) {
+                grow();
+            }
+            int slot = (int) (tail & mask);
+            bucketDays[slot] = days;
+            bucketCounts[slot] = 0;
+            bucketSums[slot] = 0;
+            tail++;
+        }
+
+        int slot = (int) ((tail - 1) & mask);
+        bucketCounts[slot]++;
+        bucketSums[slot] += value;
+        for (int k = 0; k < widths.length; k++) {
+            counts[k]++;
+            sums[k] += value;
+        }
+    }
+
+    /**
+     * Adds an event on the given date.
+     *
+     * @param date  the date of the event, not before the current day
+     * @param value the value added to the sums
+     * @throws IllegalArgumentException if the event is before the current day
+     */
+    public void add(Date date, long value) {
+        add(date.toDays(), value);
+    }
+
+    /**
+     * Moves the window to the given day. Every day before it is closed and reported to the listener;
+     * the given day becomes the current day. Calling it with the day after the last one of interest
+     * reports everything up to that day.
+     *
+     * @param days the new current day count
+     * @throws IllegalArgumentException if the day is before the current day
+     */
+    public void advanceTo(int days) {
+        if (current < 0) {
+            current = days;
+            return;
+        }
+        if (days < current) {
+            throw new IllegalArgumentException("Events must be in date order: " + days + " is before " + current);
+        }
+
+        int day = current;
+        while (day < days) {
+            // The aggregates stay the same until the oldest bucket of some window leaves it
+            int change = days;
+            for (int k = 0; k < widths.length; k++) {
+                if (oldest[k] < tail) {
+                    change = (int) Math.min(change, (long) bucketDays[(int) (oldest[k] & mask)] + widths[k]);
+                }
+            }
+
+            if (listener != null) {
+                listener.onDays(day, change - 1, this);
+            }
+            day = change;
+            expire(day);
+        }
+        current = days;
+    }
+
+    //-----------------------------------------------------------------------------------------------|
+    //                                       QUERIES                                                 |
+    //-----------------------------------------------------------------------------------------------|
+
+    /**
+     * Returns the current day, the last day passed to add or advanceTo.
+     *
+     * @return the current day count, or -1 before the first call
+     */
+    public int currentDay() {
+        return current;
+    }
+
+    /**
+     * Returns the number of windows.
+     *
+     * @return the number of windows
+     */
+    public int windows() {
+        return widths.length;
+    }
+
+    /**
+     * Returns the width of a window.
+     *
+     * @param window the index of the window, in constructor order
+     * @return the width in days
+     */
+    public int width(int window) {
+        return widths[window];
+    }
+
+    /**
+     * Returns the number of events in a window ending on the current day (or on the reported run).
+     *
+     * @param window the index of the window, in constructor order
+     * @return the number of events
+     */
+    public long count(int window) {
+        return counts[window];
+    }
+
+    /**
+     * Returns the sum of the event values in a window ending on the current day (or on the reported run).
+     *
+     * @param window the index of the window, in constructor order
+     * @return the sum of the values
+     */
+    public long sum(int window) {
+        return sums[window];
+    }
+
+    // Doubles the ring, keeping every live bucket at the slot of its sequence number
+    private void grow() {
+        int capacity = Math.min((mask + 1) << 1, maxCapacity);
+        int[] newDays = new int[capacity];
+        long[] newCounts = new long[capacity];
+        long[] newSums = new long[capacity];
+        int newMask = capacity - 1;
+        for (long sequence = head; sequence < tail; sequence++) {
+            int from = (int) (sequence & mask);
+            int to = (int) (sequence & newMask);
+            newDays[to] = bucketDays[from];
+            newCounts[to] = bucketCounts[from];
+            newSums[to] = bucketSums[from];
+        }
+        bucketDays = newDays;
+        bucketCounts = newCounts;
+        bucketSums = newSums;
+        mask = newMask;
+    }
+
+    // Removes the buckets that no longer belong to each window once the given day is current
+    private void expire(int day) {
+        long minOldest = tail;
+        for (int k = 0; k < widths.length; k++) {
+            long outside = (long) day - widths[k]; // Last day that is no longer in the window
+            while (oldest[k] < tail && bucketDays[(int) (oldest[k] & mask)] <= outside) {
+                int slot = (int) (oldest[k] & mask);
+                counts[k] -= bucketCounts[slot];
+                sums[k] -= bucketSums[slot];
+                oldest[k]++;
+            }
+            minOldest = Math.min(minOldest, oldest[k]);
+        }
+        head = minOldest;
+    }
+}